@@ -0,0 +1,196 @@
+package geometries;
+
+import java.util.Arrays;
+
+/**
+ * The nodes of a bounding volume hierarchy kept in flat primitive arrays, in the layout shared by {@link FlatBvh}
+ * and {@link PrimitiveBvh}: the box of a node is six consecutive doubles, and the children of a node are adjacent.
+ * Holds the slab test of a box against a ray as well, used by the hierarchies and by
+ * {@link Intersectable.BoundingBox}.
+ */
+final class BvhNodes {
+    /**
+     * the boxes of the nodes, six numbers per node: minX, minY, minZ, maxX, maxY, maxZ
+     */
+    double[] bounds = new double[6 * 16];
+
+    /**
+     * two numbers per node: the index of the first child (or of the first item for a leaf)
+     * and the number of items in a leaf, or minus the number of children of an inner node
+     */
+    int[] nodes = new int[2 * 16];
+
+    /**
+     * number of nodes in the arrays
+     */
+    int count = 0;
+
+    /**
+     * the traversal stack of every thread, kept between the rays of the thread
+     */
+    private final ThreadLocal<Stack> stacks = new ThreadLocal<>();
+
+    /**
+     * The nodes still to visit in a traversal, with the distances the ray enters them at
+     */
+    static final class Stack {
+        /**
+         * the nodes still to visit
+         */
+        final int[] nodes;
+
+        /**
+         * the distances the ray enters the nodes at
+         */
+        final double[] entries;
+
+        /**
+         * true while a traversal uses the stack
+         */
+        private boolean busy = false;
+
+        /**
+         * @param size the number of nodes the stack holds
+         */
+        Stack(int size) {
+            nodes = new int[size];
+            entries = new double[size];
+        }
+    }
+
+    /**
+     * takes the traversal stack of the thread, to be given back by {@link #releaseStack(Stack)} once the traversal
+     * is over. A thread that is already traversing the hierarchy gets a new stack.
+     *
+     * @param size the number of nodes the stack must hold, for the deepest path of the hierarchy
+     * @return the stack
+     */
+    Stack takeStack(int size) {
+        Stack stack = stacks.get();
+        if (stack == null) {
+            stack = new Stack(size);
+            stacks.set(stack);
+        } else if (stack.busy)
+            return new Stack(size);
+        stack.busy = true;
+        return stack;
+    }
+
+    /**
+     * gives back a traversal stack, for the next ray of the thread
+     *
+     * @param stack the stack taken by {@link #takeStack(int)}
+     */
+    void releaseStack(Stack stack) {
+        stack.busy = false;
+    }
+
+    /**
+     * allocates consecutive nodes at the end of the arrays
+     *
+     * @param count number of nodes
+     * @return index of the first allocated node
+     */
+    int allocate(int count) {
+        int first = this.count;
+        this.count += count;
+        if (2 * this.count > nodes.length) {
+            int capacity = Math.max(2 * this.count, 2 * nodes.length);
+            nodes = Arrays.copyOf(nodes, capacity);
+            bounds = Arrays.copyOf(bounds, 3 * capacity);
+        }
+        return first;
+    }
+
+    /**
+     * cuts the arrays to the nodes allocated, once the hierarchy is built
+     */
+    void trim() {
+        bounds = Arrays.copyOf(bounds, 6 * count);
+        nodes = Arrays.copyOf(nodes, 2 * count);
+    }
+
+    /**
+     * slab test of a node box against a ray given by its head and the inverse of its direction
+     *
+     * @param node        node index
+     * @param ox          x of the ray head
+     * @param oy          y of the ray head
+     * @param oz          z of the ray head
+     * @param ix          inverse of the x of the ray direction
+     * @param iy          inverse of the y of the ray direction
+     * @param iz          inverse of the z of the ray direction
+     * @param maxDistance maximal distance along the ray
+     * @return the distance the ray enters the box at, or Double.POSITIVE_INFINITY if it misses the box
+     */
+    double entryDistance(int node, double ox, double oy, double oz, double ix, double iy, double iz,
+                         double maxDistance) {
+        int b = 6 * node;
+        return entryDistance(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5],
+                ox, oy, oz, ix, iy, iz, maxDistance);
+    }
+
+    /**
+     * slab test of a box against a ray given by its head and the inverse of its direction
+     *
+     * @param minX        the minimal x of the box
+     * @param minY        the minimal y of the box
+     * @param minZ        the minimal z of the box
+     * @param maxX        the maximal x of the box
+     * @param maxY        the maximal y of the box
+     * @param maxZ        the maximal z of the box
+     * @param ox          x of the ray head
+     * @param oy          y of the ray head
+     * @param oz          z of the ray head
+     * @param ix          inverse of the x of the ray direction
+     * @param iy          inverse of the y of the ray direction
+     * @param iz          inverse of the z of the ray direction
+     * @param maxDistance the box is counted as missed if the ray enters it farther than this distance
+     * @return the distance the ray enters the box at, 0 if the ray starts inside the box,
+     * or Double.POSITIVE_INFINITY if it misses the box
+     * code taken from scratchapixel.com
+     * https://www.scratchapixel.com/lessons/3d-basic-rendering/introduction-acceleration-structure/bounding-volume-hierarchy-BVH-part1
+     */
+    static double entryDistance(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                                double ox, double oy, double oz, double ix, double iy, double iz,
+                                double maxDistance) {
+        double tmin = 0;
+        double tmax = maxDistance;
+        // a NaN (ray parallel to a slab and starting on its side) fails all the comparisons
+        // and leaves the interval as it is
+        double t1 = (minX - ox) * ix;
+        double t2 = (maxX - ox) * ix;
+        if (t1 > t2) {
+            double temp = t1;
+            t1 = t2;
+            t2 = temp;
+        }
+        if (t1 > tmin)
+            tmin = t1;
+        if (t2 < tmax)
+            tmax = t2;
+        t1 = (minY - oy) * iy;
+        t2 = (maxY - oy) * iy;
+        if (t1 > t2) {
+            double temp = t1;
+            t1 = t2;
+            t2 = temp;
+        }
+        if (t1 > tmin)
+            tmin = t1;
+        if (t2 < tmax)
+            tmax = t2;
+        t1 = (minZ - oz) * iz;
+        t2 = (maxZ - oz) * iz;
+        if (t1 > t2) {
+            double temp = t1;
+            t1 = t2;
+            t2 = temp;
+        }
+        if (t1 > tmin)
+            tmin = t1;
+        if (t2 < tmax)
+            tmax = t2;
+        return tmin > tmax ? Double.POSITIVE_INFINITY : tmin;
+    }
+}
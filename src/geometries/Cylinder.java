@@ -29,6 +29,22 @@ public class Cylinder extends Tube {
 
         super(axisRay, radius);
         this.height = height;
+        if (_bvhIsOn)
+            createBoundingBox();
+    }
+
+    /**
+     * create boundary box for object - the box of the two bases.
+     * A base spreads along an axis by the radius times the sine of the angle between that axis and the cylinder axis.
+     */
+    @Override
+    public void createBoundingBox() {
+        double ex = radius * Math.sqrt(Math.max(0, 1 - vx * vx));
+        double ey = radius * Math.sqrt(Math.max(0, 1 - vy * vy));
+        double ez = radius * Math.sqrt(Math.max(0, 1 - vz * vz));
+        double bx = ax + height * vx, by = ay + height * vy, bz = az + height * vz;
+        _box = new BoundingBox(new Point(Math.min(ax, bx) - ex, Math.min(ay, by) - ey, Math.min(az, bz) - ez),
+                new Point(Math.max(ax, bx) + ex, Math.max(ay, by) + ey, Math.max(az, bz) + ez));
     }
 
     /**
@@ -65,4 +81,78 @@ public class Cylinder extends Tube {
         return point.subtract(o).normalize();
     }
 
+    /**
+     * Finds the first intersection of the ray with the cylinder after a given distance: with the side surface
+     * between the bases, or with one of the bases inside the radius. Hits on the rims of the bases are not counted.
+     *
+     * @param ray   the ray
+     * @param after the distance to look after - 0 for the first intersection
+     * @return the distance of the intersection, or Double.POSITIVE_INFINITY if there is none
+     */
+    @Override
+    protected double intersection(Ray ray, double after) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double wx = p0.getX() - ax, wy = p0.getY() - ay, wz = p0.getZ() - az;
+        double dv = dx * vx + dy * vy + dz * vz;
+        double wv = wx * vx + wy * vy + wz * vz;
+        double closest = Double.POSITIVE_INFINITY;
+
+        // the side surface, between the bases
+        double a = 1 - dv * dv;
+        if (!isZero(a)) {
+            double halfB = dx * wx + dy * wy + dz * wz - dv * wv;
+            double c = wx * wx + wy * wy + wz * wz - wv * wv - radiusSquared;
+            double discriminant = alignZero(halfB * halfB - a * c);
+            if (discriminant > 0) {
+                double root = Math.sqrt(discriminant);
+                double t1 = (-halfB - root) / a;
+                double t2 = (-halfB + root) / a;
+                if (isAfter(t1, after) && isBetweenBases(wv + t1 * dv))
+                    closest = t1;
+                else if (isAfter(t2, after) && isBetweenBases(wv + t2 * dv))
+                    closest = t2;
+            }
+        }
+
+        // the bases, at 0 and at the height along the axis
+        if (!isZero(dv)) {
+            double t = -wv / dv;
+            if (isAfter(t, after) && t < closest && isInsideBase(wx + t * dx, wy + t * dy, wz + t * dz))
+                closest = t;
+            t = (height - wv) / dv;
+            if (isAfter(t, after) && t < closest && isInsideBase(wx + t * dx - height * vx,
+                    wy + t * dy - height * vy, wz + t * dz - height * vz))
+                closest = t;
+        }
+        return closest;
+    }
+
+    /**
+     * @param t     distance along the ray
+     * @param after the distance to look after
+     * @return true if the distance is in front of the ray head and after the given distance
+     */
+    private static boolean isAfter(double t, double after) {
+        return alignZero(t) > 0 && t > after;
+    }
+
+    /**
+     * @param s distance along the axis from its head
+     * @return true if the distance is strictly between the bases
+     */
+    private boolean isBetweenBases(double s) {
+        return alignZero(s) > 0 && alignZero(s - height) < 0;
+    }
+
+    /**
+     * @param rx x of the vector from the center of a base to a point of its plane
+     * @param ry y of the vector from the center of a base to a point of its plane
+     * @param rz z of the vector from the center of a base to a point of its plane
+     * @return true if the point is strictly inside the base
+     */
+    private boolean isInsideBase(double rx, double ry, double rz) {
+        return alignZero(rx * rx + ry * ry + rz * rz - radiusSquared) < 0;
+    }
 }
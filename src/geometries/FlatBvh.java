@@ -0,0 +1,191 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled form of a bounding volume hierarchy, kept in flat primitive arrays.
+ * The nodes are stored in depth first order and the children of every node are adjacent,
+ * so the box of a node is six consecutive doubles and no object is touched until a leaf is reached.
+ * The hierarchy is traversed with an explicit stack of node indices, using the inverse of the ray direction.
+ */
+class FlatBvh extends Intersectable {
+    /**
+     * the nodes of the hierarchy, the items of the leaves are indices in {@link #geometries}
+     */
+    private final BvhNodes tree = new BvhNodes();
+
+    /**
+     * the geometries in the order of the leaves
+     */
+    final Intersectable[] geometries;
+
+    /**
+     * size of the traversal stack needed for the deepest path of the hierarchy
+     */
+    private final int stackSize;
+
+    /**
+     * depth of the deepest node, collected while compiling
+     */
+    private int maxDepth = 1;
+
+    /**
+     * the largest number of children of a node, collected while compiling
+     */
+    private int maxChildren = 1;
+
+    /**
+     * Compiles a hierarchy
+     *
+     * @param children the children of the root of the hierarchy - inner nodes built by
+     *                 {@link Geometries#buildBvh()} or bounded geometries
+     */
+    FlatBvh(List<Intersectable> children) {
+        List<Intersectable> ordered = new ArrayList<>();
+        int root = tree.allocate(1);
+        double[] rootBounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (Intersectable child : children)
+            for (int axis = 0; axis < 3; ++axis) {
+                rootBounds[axis] = Math.min(rootBounds[axis], coordinate(child._box._minimums, axis));
+                rootBounds[axis + 3] = Math.max(rootBounds[axis + 3], coordinate(child._box._maximums, axis));
+            }
+        System.arraycopy(rootBounds, 0, tree.bounds, 6 * root, 6);
+        flatten(root, children, ordered, 1);
+        stackSize = maxDepth * maxChildren + 1;
+        geometries = ordered.toArray(new Intersectable[0]);
+        tree.trim();
+        createBoundingBox();
+    }
+
+    /**
+     * fills the node at the given index and recursively all the nodes under it
+     *
+     * @param node     the node index
+     * @param children the children of the node
+     * @param ordered  the list of the geometries in the order of the leaves
+     * @param depth    depth of the node
+     */
+    private void flatten(int node, List<Intersectable> children, List<Intersectable> ordered, int depth) {
+        boolean leaf = true;
+        for (Intersectable child : children)
+            if (Geometries.bvhChildren(child) != null)
+                leaf = false;
+        if (leaf) {
+            tree.nodes[2 * node] = ordered.size();
+            tree.nodes[2 * node + 1] = children.size();
+            ordered.addAll(children);
+            return;
+        }
+
+        int first = tree.allocate(children.size());
+        tree.nodes[2 * node] = first;
+        tree.nodes[2 * node + 1] = -children.size();
+        maxDepth = Math.max(maxDepth, depth);
+        maxChildren = Math.max(maxChildren, children.size());
+        for (int i = 0; i < children.size(); ++i) {
+            Intersectable child = children.get(i);
+            for (int axis = 0; axis < 3; ++axis) {
+                tree.bounds[6 * (first + i) + axis] = coordinate(child._box._minimums, axis);
+                tree.bounds[6 * (first + i) + axis + 3] = coordinate(child._box._maximums, axis);
+            }
+            List<Intersectable> grandChildren = Geometries.bvhChildren(child);
+            flatten(first + i, grandChildren == null ? List.of(child) : grandChildren, ordered, depth + 1);
+        }
+    }
+
+    /**
+     * @param point point
+     * @param axis  0 for x, 1 for y, 2 for z
+     * @return the coordinate of the point along the axis
+     */
+    private static double coordinate(Point point, int axis) {
+        return axis == 0 ? point.getX() : axis == 1 ? point.getY() : point.getZ();
+    }
+
+    /**
+     * create boundary box for object - the box of the root node
+     */
+    @Override
+    public void createBoundingBox() {
+        if (tree.count == 0)
+            return;
+        double[] bounds = tree.bounds;
+        _box = new BoundingBox(new Point(bounds[0], bounds[1], bounds[2]), new Point(bounds[3], bounds[4], bounds[5]));
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        return collectHits(ray);
+    }
+
+    /**
+     * Pushes the hits into the collector visiting the children of every node from the nearest to the farthest,
+     * skipping the nodes farther than the maximal distance of the collector
+     *
+     * @param ray       the ray to find intersections with
+     * @param collector receives the hits, and bounds the search with its maximal distance
+     * @return false if the collector stopped the search
+     */
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        if (!_bvhIsOn) {
+            for (Intersectable geometry : geometries)
+                if (!geometry.findHits(ray, collector))
+                    return false;
+            return true;
+        }
+
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double ix = 1 / dir.getX(), iy = 1 / dir.getY(), iz = 1 / dir.getZ();
+        BvhNodes.Stack traversal = tree.takeStack(stackSize);
+        try {
+            int[] stack = traversal.nodes;
+            double[] entries = traversal.entries;
+            int top = 0;
+            entries[top] = tree.entryDistance(0, ox, oy, oz, ix, iy, iz, collector.getMaxDistance());
+            stack[top++] = 0;
+            while (top > 0) {
+                --top;
+                double maxDistance = collector.getMaxDistance();
+                if (!collector.accepts(entries[top]))
+                    continue;
+                int node = stack[top];
+                int first = tree.nodes[2 * node];
+                int count = tree.nodes[2 * node + 1];
+                if (count > 0) {
+                    for (int i = first; i < first + count; ++i)
+                        if (!(count == 1 ? geometries[i].findHitsHelper(ray, collector)
+                                : geometries[i].findHits(ray, collector)))
+                            return false;
+                    continue;
+                }
+                // push the children from the farthest to the nearest, so the nearest is visited first
+                int bottom = top;
+                for (int child = first; child < first - count; ++child) {
+                    double entry = tree.entryDistance(child, ox, oy, oz, ix, iy, iz, maxDistance);
+                    if (entry == Double.POSITIVE_INFINITY)
+                        continue;
+                    int i = top++;
+                    while (i > bottom && entries[i - 1] < entry) {
+                        entries[i] = entries[i - 1];
+                        stack[i] = stack[i - 1];
+                        --i;
+                    }
+                    entries[i] = entry;
+                    stack[i] = child;
+                }
+            }
+            return true;
+        } finally {
+            tree.releaseStack(traversal);
+        }
+    }
+}
@@ -4,8 +4,8 @@ import primitives.Point;
 import primitives.Ray;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Function;
 
 
 /**
@@ -17,16 +17,55 @@ import java.util.List;
 public class Geometries extends Intersectable {
 
     /**
-     * A list of intersectable geometries that are stored in this Geometries object.
+     * A list of the bounded intersectable geometries that are stored in this Geometries object.
      */
      private List<Intersectable> list;
 
+    /**
+     * The geometries without a bounding box (like planes and tubes) - they are tested by every ray
+     */
+    private final List<Intersectable> unbounded = new ArrayList<>();
+
+    /**
+     * box of the bounded geometries - it is the box of this object as well, unless there are unbounded geometries
+     */
+    private BoundingBox _boundedBox;
+
+    /**
+     * true for the inner nodes created by {@link #buildBvh()}, false for geometries created by the user
+     */
+    private boolean _bvhNode = false;
+
+    /**
+     * time in milliseconds the last hierarchy build took
+     */
+    private long _buildTime = 0;
+
+    /**
+     * maximal number of geometries kept together in a single leaf of the hierarchy
+     */
+    static final int MAX_GEOMETRIES_IN_LEAF = 2;
+
+    /**
+     * number of buckets the centroids are divided into when evaluating the surface area heuristic
+     */
+    private static final int SAH_BUCKETS = 12;
+
+    /**
+     * cost of traversing a node, relative to the cost of intersecting a single geometry
+     */
+    private static final double TRAVERSAL_COST = 0.125;
+
+    /**
+     * up to this number of children, the children are visited in the order of their distance from the ray head
+     */
+    private static final int MAX_ORDERED_CHILDREN = 8;
 
     /**
      * Constructs an empty Geometries object.
      */
     public Geometries() {
-        list = new LinkedList<>();
+        list = new ArrayList<>();
     }
 
 
@@ -36,12 +75,19 @@ public class Geometries extends Intersectable {
      * @param geometries An array of Intersectable geometries to add to this Geometries object.
      */
     public Geometries(Intersectable... geometries){
-        list = new LinkedList<>();
-        for (Intersectable geometry : geometries) {
-            list.add(geometry);
-        }
-        if (_bvhIsOn)
-            createBoundingBox();
+        list = new ArrayList<>();
+        add(geometries);
+    }
+
+    /**
+     * Constructs an inner node of the bounding volume hierarchy
+     *
+     * @param geometries the geometries (or sub nodes) held by the node
+     */
+    Geometries(List<Intersectable> geometries) {
+        list = new ArrayList<>(geometries);
+        _bvhNode = true;
+        createBoundingBox();
     }
 
     /**
@@ -55,11 +101,18 @@ public class Geometries extends Intersectable {
     public List<Point> findIntersections(Ray ray) {
         List<Point> listOfAllThePoint = new ArrayList<>();
 
-        for (Intersectable geometry : list) {
+        for (Intersectable geometry : unbounded) {
             List<Point> pointList = geometry.findIntersections(ray);
             if (pointList == null) continue;
-            for (Point point : pointList) {
-                listOfAllThePoint.add(point);
+            listOfAllThePoint.addAll(pointList);
+        }
+        if (!isBoundedPartMissed(ray, Double.POSITIVE_INFINITY)) {
+            for (Intersectable geometry : list) {
+                List<Point> pointList = geometry.findIntersections(ray);
+                if (pointList == null) continue;
+                for (Point point : pointList) {
+                    listOfAllThePoint.add(point);
+                }
             }
         }
 
@@ -70,17 +123,95 @@ public class Geometries extends Intersectable {
 
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        return collectHits(ray);
+    }
+
+    /**
+     * checks the box of the bounded geometries. When there are no unbounded geometries it is the box
+     * of this object, and it has been checked already.
+     *
+     * @param ray         ray to check
+     * @param maxDistance maximal distance along the ray
+     * @return true if the ray surely misses all the bounded geometries
+     */
+    private boolean isBoundedPartMissed(Ray ray, double maxDistance) {
+        return _box == null && _bvhIsOn && _boundedBox != null
+                && _boundedBox.entryDistance(ray, maxDistance) == Double.POSITIVE_INFINITY;
+    }
 
-        List<GeoPoint> intersections = null;
-        for (Intersectable geometry :list) {
-            var temp = geometry.findGeoIntersections(ray);
-            if (temp != null) {
-                if (intersections == null)
-                    intersections = new LinkedList<>();
-                intersections.addAll(temp);
+    /**
+     * Pushes the hits into the collector by visiting the children from front to back,
+     * skipping the children whose boxes are farther than the maximal distance of the collector
+     *
+     * @param ray       the ray to find intersections with
+     * @param collector receives the hits, and bounds the search with its maximal distance
+     * @return false if the collector stopped the search
+     */
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        for (Intersectable geometry : unbounded)
+            if (!geometry.findHits(ray, collector))
+                return false;
+        if (isBoundedPartMissed(ray, collector.getMaxDistance()))
+            return true;
+
+        return findBoundedHits(ray, collector);
+    }
+
+    /**
+     * Pushes the hits with the bounded geometries into the collector
+     *
+     * @param ray       the ray to find intersections with
+     * @param collector receives the hits, and bounds the search with its maximal distance
+     * @return false if the collector stopped the search
+     */
+    private boolean findBoundedHits(Ray ray, HitCollector collector) {
+        int size = list.size();
+        if (size > MAX_ORDERED_CHILDREN) {
+            // too many children to order, just keep the bound tight
+            for (Intersectable geometry : list)
+                if (collector.accepts(geometry.boundingBoxDistance(ray, collector.getMaxDistance()))
+                        && !geometry.findHitsHelper(ray, collector))
+                    return false;
+            return true;
+        }
+
+        if (size == 2) {
+            // the common case of an inner node of the hierarchy
+            Intersectable first = list.get(0);
+            Intersectable second = list.get(1);
+            double firstEntry = first.boundingBoxDistance(ray, collector.getMaxDistance());
+            double secondEntry = second.boundingBoxDistance(ray, collector.getMaxDistance());
+            if (secondEntry < firstEntry) {
+                Intersectable temp = first;
+                first = second;
+                second = temp;
+                double tempEntry = firstEntry;
+                firstEntry = secondEntry;
+                secondEntry = tempEntry;
             }
+            if (collector.accepts(firstEntry) && !first.findHitsHelper(ray, collector))
+                return false;
+            return !collector.accepts(secondEntry) || second.findHitsHelper(ray, collector);
+        }
+
+        double[] entries = new double[size];
+        for (int i = 0; i < size; ++i)
+            entries[i] = list.get(i).boundingBoxDistance(ray, collector.getMaxDistance());
+
+        while (true) {
+            // the nearest child not visited yet
+            int next = -1;
+            for (int i = 0; i < size; ++i)
+                if (collector.accepts(entries[i]) && (next < 0 || entries[i] < entries[next]))
+                    next = i;
+            if (next < 0)
+                return true;
+            entries[next] = Double.POSITIVE_INFINITY;
+
+            if (!list.get(next).findHitsHelper(ray, collector))
+                return false;
         }
-        return intersections;
     }
 
     /**
@@ -90,10 +221,352 @@ public class Geometries extends Intersectable {
      */
     public void add(Intersectable... geometries){
         for (Intersectable geometry : geometries) {
-            list.add(geometry);
-            if (_bvhIsOn)
-                createBoundingBox();
+            if (geometry._box == null)
+                unbounded.add(geometry);
+            else {
+                list.add(geometry);
+                includeInBox(geometry._box);
+            }
+        }
+        _box = unbounded.isEmpty() ? _boundedBox : null;
+    }
+
+    /**
+     * enlarges the box of the bounded geometries so it contains another box
+     *
+     * @param box box to contain
+     */
+    private void includeInBox(BoundingBox box) {
+        if (_boundedBox == null) {
+            _boundedBox = new BoundingBox(box._minimums, box._maximums);
+            return;
         }
+        _boundedBox = new BoundingBox(
+                new Point(Math.min(_boundedBox._minimums.getX(), box._minimums.getX()),
+                        Math.min(_boundedBox._minimums.getY(), box._minimums.getY()),
+                        Math.min(_boundedBox._minimums.getZ(), box._minimums.getZ())),
+                new Point(Math.max(_boundedBox._maximums.getX(), box._maximums.getX()),
+                        Math.max(_boundedBox._maximums.getY(), box._maximums.getY()),
+                        Math.max(_boundedBox._maximums.getZ(), box._maximums.getZ())));
+    }
+
+    /**
+     * setter, builder pattern - turns the bvh on or off for this object and the acceleration structures built under it
+     *
+     * @param bvhIsOn true of false
+     * @return this
+     */
+    @Override
+    public Geometries setBvhIsOn(boolean bvhIsOn) {
+        for (Intersectable geometry : list)
+            if (geometry instanceof Geometries node && node._bvhNode || geometry instanceof FlatBvh
+                    || geometry instanceof UniformGrid)
+                geometry.setBvhIsOn(bvhIsOn);
+        super.setBvhIsOn(bvhIsOn);
+        return this;
+    }
+
+    /**
+     * Builds a bounding volume hierarchy over the geometries, so a ray is tested only against the
+     * nodes whose boxes it passes through. Every node is split according to the surface area heuristic.
+     * Geometries without a bounding box are kept aside, and are tested by every ray.
+     * Calling the method again rebuilds the hierarchy from scratch.
+     *
+     * @return this
+     */
+    public Geometries buildBvh() {
+        return buildHierarchy(Geometries::buildSah);
+    }
+
+    /**
+     * Builds a linear bounding volume hierarchy over the geometries: the centroids of the boxes are sorted
+     * by their Morton codes and the hierarchy is built on all the cores with fork/join tasks.
+     * The build is much faster than {@link #buildBvh()} while the hierarchy is somewhat slower to traverse,
+     * so it suits draft renders of scenes with a huge number of geometries.
+     * Calling the method again rebuilds the hierarchy from scratch.
+     *
+     * @return this
+     */
+    public Geometries buildLinearBvh() {
+        return buildHierarchy(LinearBvhBuilder::build);
+    }
+
+    /**
+     * Builds a uniform grid over the geometries instead of a hierarchy: the box of the geometries is divided into
+     * equal cells, and a ray visits the cells along its way in order, stopping at the first cell that holds
+     * the closest hit. The number of cells is set from the number of geometries and the extent of their box,
+     * about three cells per geometry. Suits scenes of many small geometries spread evenly in space.
+     * Calling the method again rebuilds the grid from scratch.
+     *
+     * @return this
+     */
+    public Geometries buildGrid() {
+        return buildHierarchy(UniformGrid::new);
+    }
+
+    /**
+     * Builds a uniform grid over the geometries with a given number of cells along each axis
+     *
+     * @param nX number of cells along the x axis
+     * @param nY number of cells along the y axis
+     * @param nZ number of cells along the z axis
+     * @return this
+     */
+    public Geometries buildGrid(int nX, int nY, int nZ) {
+        if (nX < 1 || nY < 1 || nZ < 1)
+            throw new IllegalArgumentException("a grid must have at least one cell along each axis");
+        int[] resolution = {nX, nY, nZ};
+        return buildHierarchy(geometries -> new UniformGrid(geometries, resolution));
+    }
+
+    /**
+     * Compiles the hierarchy into a flat layout: the boxes and the structure of the nodes are kept in primitive
+     * arrays in depth first order, with the children of every node next to each other, and the rays traverse
+     * it with an explicit stack. If no hierarchy was built yet, it is built by {@link #buildBvh()} first.
+     *
+     * @return this
+     */
+    public Geometries compileBvh() {
+        boolean built = false;
+        for (Intersectable geometry : list) {
+            if (geometry instanceof FlatBvh)
+                return this;
+            if (bvhChildren(geometry) != null)
+                built = true;
+        }
+        if (!built)
+            buildBvh();
+        if (list.isEmpty())
+            return this;
+        list = new ArrayList<>(List.of(new FlatBvh(list)));
+        createBoundingBox();
+        return this;
+    }
+
+    /**
+     * @param geometry a geometry
+     * @return the children of an inner node of the hierarchy, or null for any other geometry
+     */
+    static List<Intersectable> bvhChildren(Intersectable geometry) {
+        return geometry instanceof Geometries node && node._bvhNode ? node.list : null;
+    }
+
+    /**
+     * getter for the time the last hierarchy build took
+     *
+     * @return build time in milliseconds
+     */
+    public long getBuildTime() {
+        return _buildTime;
+    }
+
+    /**
+     * builds a hierarchy over the bounded geometries, keeping the unbounded ones aside
+     *
+     * @param builder arranges a list of bounded geometries into a hierarchy and returns its root
+     * @return this
+     */
+    private Geometries buildHierarchy(Function<List<Intersectable>, Intersectable> builder) {
+        long start = System.currentTimeMillis();
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> unboundedGeometries = new ArrayList<>();
+        collectGeometries(bounded, unboundedGeometries);
+        unbounded.clear();
+        unbounded.addAll(unboundedGeometries);
+        list = new ArrayList<>();
+        if (!bounded.isEmpty()) {
+            Intersectable root = builder.apply(bounded);
+            if (root instanceof Geometries node && node._bvhNode)
+                list.addAll(node.list);
+            else
+                list.add(root);
+        }
+        createBoundingBox();
+        _buildTime = System.currentTimeMillis() - start;
+        return this;
+    }
+
+    /**
+     * gathers the geometries of this object, opening the hierarchy nodes, compiled hierarchies and grids built before
+     *
+     * @param bounded   list for the geometries that have a bounding box
+     * @param unbounded list for the geometries without a bounding box
+     */
+    private void collectGeometries(List<Intersectable> bounded, List<Intersectable> unbounded) {
+        unbounded.addAll(this.unbounded);
+        for (Intersectable geometry : list) {
+            if (geometry instanceof Geometries node && node._bvhNode)
+                node.collectGeometries(bounded, unbounded);
+            else if (geometry instanceof FlatBvh flat)
+                bounded.addAll(List.of(flat.geometries));
+            else if (geometry instanceof UniformGrid grid)
+                bounded.addAll(List.of(grid.geometries));
+            else if (geometry._box == null)
+                unbounded.add(geometry);
+            else
+                bounded.add(geometry);
+        }
+    }
+
+    /**
+     * recursively builds the hierarchy: every node is split into the two groups of minimal
+     * surface area heuristic cost, the centroids being divided into buckets along each axis
+     *
+     * @param geometries bounded geometries to arrange
+     * @return the root of the sub hierarchy
+     */
+    private static Intersectable buildSah(List<Intersectable> geometries) {
+        int size = geometries.size();
+        if (size == 1)
+            return geometries.get(0);
+
+        double[] centroids = new double[3 * size];
+        double[] centroidMin = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] centroidMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        double[] nodeBounds = emptyBounds();
+        for (int i = 0; i < size; ++i) {
+            BoundingBox box = geometries.get(i)._box;
+            extend(nodeBounds, box);
+            for (int axis = 0; axis < 3; ++axis) {
+                double c = (coordinate(box._minimums, axis) + coordinate(box._maximums, axis)) / 2;
+                centroids[3 * i + axis] = c;
+                centroidMin[axis] = Math.min(centroidMin[axis], c);
+                centroidMax[axis] = Math.max(centroidMax[axis], c);
+            }
+        }
+
+        // find the split of the lowest cost over all the axes
+        double nodeArea = surfaceArea(nodeBounds);
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1;
+        int bestBucket = -1;
+        for (int axis = 0; axis < 3; ++axis) {
+            double extent = centroidMax[axis] - centroidMin[axis];
+            if (extent <= 0)
+                continue;
+            int[] counts = new int[SAH_BUCKETS];
+            double[][] bounds = new double[SAH_BUCKETS][];
+            for (int i = 0; i < size; ++i) {
+                int b = bucket(centroids[3 * i + axis], centroidMin[axis], extent);
+                ++counts[b];
+                if (bounds[b] == null)
+                    bounds[b] = emptyBounds();
+                extend(bounds[b], geometries.get(i)._box);
+            }
+            // sweep from the right to get the area of every right group
+            double[] rightAreas = new double[SAH_BUCKETS];
+            double[] accumulated = emptyBounds();
+            for (int b = SAH_BUCKETS - 1; b > 0; --b) {
+                if (bounds[b] != null)
+                    union(accumulated, bounds[b]);
+                rightAreas[b] = surfaceArea(accumulated);
+            }
+            accumulated = emptyBounds();
+            int leftCount = 0;
+            for (int b = 0; b < SAH_BUCKETS - 1; ++b) {
+                if (bounds[b] != null)
+                    union(accumulated, bounds[b]);
+                leftCount += counts[b];
+                int rightCount = size - leftCount;
+                if (leftCount == 0 || rightCount == 0)
+                    continue;
+                double cost = TRAVERSAL_COST
+                        + (surfaceArea(accumulated) * leftCount + rightAreas[b + 1] * rightCount) / nodeArea;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBucket = b;
+                }
+            }
+        }
+
+        if (size <= MAX_GEOMETRIES_IN_LEAF && !(bestCost < size))
+            return new Geometries(geometries);
+
+        List<Intersectable> left = new ArrayList<>();
+        List<Intersectable> right = new ArrayList<>();
+        if (bestAxis < 0) {
+            // all the centroids are at the same point - just halve the group
+            left.addAll(geometries.subList(0, size / 2));
+            right.addAll(geometries.subList(size / 2, size));
+        } else {
+            double extent = centroidMax[bestAxis] - centroidMin[bestAxis];
+            for (int i = 0; i < size; ++i) {
+                if (bucket(centroids[3 * i + bestAxis], centroidMin[bestAxis], extent) <= bestBucket)
+                    left.add(geometries.get(i));
+                else
+                    right.add(geometries.get(i));
+            }
+        }
+        return new Geometries(List.of(buildSah(left), buildSah(right)));
+    }
+
+    /**
+     * finds the bucket of a centroid
+     *
+     * @param centroid the centroid coordinate along the axis
+     * @param min      the minimal centroid coordinate along the axis
+     * @param extent   the extent of the centroids along the axis
+     * @return the bucket index
+     */
+    private static int bucket(double centroid, double min, double extent) {
+        return Math.min(SAH_BUCKETS - 1, (int) (SAH_BUCKETS * (centroid - min) / extent));
+    }
+
+    /**
+     * @param point point
+     * @param axis  0 for x, 1 for y, 2 for z
+     * @return the coordinate of the point along the axis
+     */
+    private static double coordinate(Point point, int axis) {
+        return axis == 0 ? point.getX() : axis == 1 ? point.getY() : point.getZ();
+    }
+
+    /**
+     * @return bounds array {minX, minY, minZ, maxX, maxY, maxZ} of an empty box
+     */
+    private static double[] emptyBounds() {
+        return new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+    }
+
+    /**
+     * enlarges bounds so they contain a bounding box
+     *
+     * @param bounds bounds array to enlarge
+     * @param box    the box to contain
+     */
+    private static void extend(double[] bounds, BoundingBox box) {
+        for (int axis = 0; axis < 3; ++axis) {
+            bounds[axis] = Math.min(bounds[axis], coordinate(box._minimums, axis));
+            bounds[axis + 3] = Math.max(bounds[axis + 3], coordinate(box._maximums, axis));
+        }
+    }
+
+    /**
+     * enlarges bounds so they contain other bounds
+     *
+     * @param bounds bounds array to enlarge
+     * @param other  the bounds to contain
+     */
+    private static void union(double[] bounds, double[] other) {
+        for (int axis = 0; axis < 3; ++axis) {
+            bounds[axis] = Math.min(bounds[axis], other[axis]);
+            bounds[axis + 3] = Math.max(bounds[axis + 3], other[axis + 3]);
+        }
+    }
+
+    /**
+     * @param bounds bounds array
+     * @return the surface area of the bounds, 0 for empty bounds
+     */
+    private static double surfaceArea(double[] bounds) {
+        double dx = bounds[3] - bounds[0];
+        double dy = bounds[4] - bounds[1];
+        double dz = bounds[5] - bounds[2];
+        if (dx < 0 || dy < 0 || dz < 0)
+            return 0;
+        return 2 * (dx * dy + dy * dz + dz * dx);
     }
 
     /**
@@ -103,6 +576,12 @@ public class Geometries extends Intersectable {
     public void createBoundingBox() {
         if (list == null)
             return;
+        // a geometry may have lost its box since it was added
+        for (Intersectable geo : list)
+            if (geo._box == null)
+                unbounded.add(geo);
+        list.removeIf(geo -> geo._box == null);
+
         double minX = Double.POSITIVE_INFINITY;
         double minY = Double.POSITIVE_INFINITY;
         double minZ = Double.POSITIVE_INFINITY;
@@ -110,16 +589,15 @@ public class Geometries extends Intersectable {
         double maxY = Double.NEGATIVE_INFINITY;
         double maxZ = Double.NEGATIVE_INFINITY;
         for (Intersectable geo : list) {
-            if (geo._box != null) {
-                minX = Math.min(minX, geo._box._minimums.getX());
-                minY = Math.min(minY, geo._box._minimums.getY());
-                minZ = Math.min(minZ, geo._box._minimums.getZ());
-                maxX = Math.max(maxX, geo._box._maximums.getX());
-                maxY = Math.max(maxY, geo._box._maximums.getY());
-                maxZ = Math.max(maxZ, geo._box._maximums.getZ());
-            }
+            minX = Math.min(minX, geo._box._minimums.getX());
+            minY = Math.min(minY, geo._box._minimums.getY());
+            minZ = Math.min(minZ, geo._box._minimums.getZ());
+            maxX = Math.max(maxX, geo._box._maximums.getX());
+            maxY = Math.max(maxY, geo._box._maximums.getY());
+            maxZ = Math.max(maxZ, geo._box._maximums.getZ());
         }
-        _box = new BoundingBox(new Point(minX, minY, minZ), new Point(maxX, maxY, maxZ));
+        _boundedBox = new BoundingBox(new Point(minX, minY, minZ), new Point(maxX, maxY, maxZ));
+        _box = unbounded.isEmpty() ? _boundedBox : null;
     }
 
 
@@ -23,8 +23,24 @@ public abstract class Geometry extends Intersectable {
     }
 
 
-    private Material material=new Material();
+    private Material material;
 
+    /**
+     * constructs a geometry with a material of its own
+     */
+    protected Geometry() {
+        this(new Material());
+    }
+
+    /**
+     * constructs a geometry with a given material. The light geometries that stand for a part of another geometry
+     * in its hits override {@link #getEmission()} and {@link #getMaterial()}, and are given no material.
+     *
+     * @param material the material, or null for a geometry that overrides {@link #getMaterial()}
+     */
+    protected Geometry(Material material) {
+        this.material = material;
+    }
 
 
     public Material getMaterial() {
@@ -0,0 +1,26 @@
+package geometries;
+
+import primitives.Material;
+
+/**
+ * A geometry made of many small parts kept in arrays, like the faces of a {@link TriangleMesh}. Its hits are
+ * reported to the {@link HitCollector} by the index of the part that was hit, and the light geometry standing
+ * for the part is created only for a hit the collector keeps in its result.
+ */
+public interface GeometryParts {
+    /**
+     * creates the geometry standing for a part, with the emission, the material and the normal of the part
+     *
+     * @param part index of the part
+     * @return the geometry of the part
+     */
+    Geometry getPart(int part);
+
+    /**
+     * getter for the material of a part, without creating its geometry
+     *
+     * @param part index of the part
+     * @return the material of the part
+     */
+    Material getMaterial(int part);
+}
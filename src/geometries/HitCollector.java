@@ -0,0 +1,279 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Ray;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Receives the hits of a ray one at a time while the geometries are traversed, instead of lists of intersections
+ * built and merged at every level. The maximal distance of the collector bounds the traversal: geometries and
+ * boxes farther than it are skipped, so a collector that shrinks it as hits come in, like {@link Closest},
+ * prunes the rest of the traversal.
+ * A collector is reset before every query and may be reused, but it holds the state of one query at a time,
+ * so every thread needs its own.
+ */
+public abstract class HitCollector {
+    /**
+     * hits farther than this distance from the head of the ray are not reported
+     */
+    protected double maxDistance = Double.POSITIVE_INFINITY;
+
+    /**
+     * getter for the maximal distance of the hits still of interest
+     *
+     * @return the distance
+     */
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * receives a hit
+     *
+     * @param geometry the geometry that was hit
+     * @param distance the distance of the hit from the head of the ray, not greater than the maximal distance
+     * @return false to stop the traversal, if no more hits are needed
+     */
+    protected abstract boolean collect(Geometry geometry, double distance);
+
+    /**
+     * receives a hit of a part of a geometry made of parts. By default the geometry of the part is created and
+     * received as any geometry, collectors that keep only some of the hits create it only for those.
+     *
+     * @param parts    the geometry made of parts that was hit
+     * @param part     index of the part that was hit
+     * @param distance the distance of the hit from the head of the ray, not greater than the maximal distance
+     * @return false to stop the traversal, if no more hits are needed
+     */
+    protected boolean collect(GeometryParts parts, int part, double distance) {
+        return collect(parts.getPart(part), distance);
+    }
+
+    /**
+     * checks whether a hit is in the range of the collector, so geometries skip the work on the hits
+     * that will not be collected
+     *
+     * @param distance the distance of the hit from the head of the ray,
+     *                 or Double.POSITIVE_INFINITY if there is no hit
+     * @return true if the hit would be collected
+     */
+    public final boolean accepts(double distance) {
+        return distance != Double.POSITIVE_INFINITY && distance <= getMaxDistance();
+    }
+
+    /**
+     * reports a hit found by a geometry, if it is in the range of the collector
+     *
+     * @param geometry the geometry that was hit
+     * @param distance the distance of the hit from the head of the ray,
+     *                 or Double.POSITIVE_INFINITY if there is no hit
+     * @return false to stop the traversal
+     */
+    public final boolean offer(Geometry geometry, double distance) {
+        return !accepts(distance) || collect(geometry, distance);
+    }
+
+    /**
+     * reports a hit of a part found by a geometry made of parts, if it is in the range of the collector
+     *
+     * @param parts    the geometry made of parts that was hit
+     * @param part     index of the part that was hit
+     * @param distance the distance of the hit from the head of the ray,
+     *                 or Double.POSITIVE_INFINITY if there is no hit
+     * @return false to stop the traversal
+     */
+    public final boolean offer(GeometryParts parts, int part, double distance) {
+        return !accepts(distance) || collect(parts, part, distance);
+    }
+
+    /**
+     * Keeps the hit closest to the head of the ray, shrinking the maximal distance to every hit it keeps
+     */
+    public static class Closest extends HitCollector {
+        /**
+         * the ray of the query
+         */
+        private Ray ray;
+
+        /**
+         * the geometry of the closest hit so far, or null
+         */
+        private Geometry geometry;
+
+        /**
+         * the geometry made of parts of the closest hit so far, if a part was hit, or null
+         */
+        private GeometryParts parts;
+
+        /**
+         * index of the part of the closest hit so far, if a part was hit
+         */
+        private int part;
+
+        /**
+         * prepares the collector for a query
+         *
+         * @param ray         the ray of the query
+         * @param maxDistance hits at this distance or farther are ignored
+         * @return this
+         */
+        public Closest reset(Ray ray, double maxDistance) {
+            this.ray = ray;
+            this.maxDistance = maxDistance;
+            geometry = null;
+            parts = null;
+            return this;
+        }
+
+        @Override
+        protected boolean collect(Geometry geometry, double distance) {
+            if (distance < maxDistance) {
+                this.geometry = geometry;
+                parts = null;
+                maxDistance = distance;
+            }
+            return true;
+        }
+
+        @Override
+        protected boolean collect(GeometryParts parts, int part, double distance) {
+            if (distance < maxDistance) {
+                // the geometry of the part is created once the closest hit is known
+                geometry = null;
+                this.parts = parts;
+                this.part = part;
+                maxDistance = distance;
+            }
+            return true;
+        }
+
+        /**
+         * getter for the result of the query
+         *
+         * @return the closest hit, or null if there is none
+         */
+        public GeoPoint getResult() {
+            if (parts != null) {
+                geometry = parts.getPart(part);
+                parts = null;
+            }
+            // the direction of the ray is normalized, so the distance of the hit is its ray parameter
+            return geometry == null ? null : new GeoPoint(geometry, ray.getPoint(maxDistance), maxDistance);
+        }
+    }
+
+    /**
+     * Gathers how much light passes along a segment of the ray: every hit on the segment multiplies
+     * the transmittance by the transparency of the material, until the segment is blocked
+     */
+    public static class Transmittance extends HitCollector {
+        /**
+         * the transmittance gathered so far
+         */
+        private Double3 transmittance;
+
+        /**
+         * once all the components of the transmittance are lower than this value the segment counts as blocked
+         */
+        private double minTransmittance;
+
+        /**
+         * prepares the collector for a query
+         *
+         * @param maxDistance      the length of the segment - the distance to the light
+         * @param transmittance    the transmittance gathered on the segment so far
+         * @param minTransmittance once all the components of the transmittance are lower than this value
+         *                         the segment counts as fully blocked
+         * @return this
+         */
+        public Transmittance reset(double maxDistance, Double3 transmittance, double minTransmittance) {
+            this.maxDistance = maxDistance;
+            this.transmittance = transmittance;
+            this.minTransmittance = minTransmittance;
+            return this;
+        }
+
+        @Override
+        protected boolean collect(Geometry geometry, double distance) {
+            return pass(geometry.getMaterial());
+        }
+
+        @Override
+        protected boolean collect(GeometryParts parts, int part, double distance) {
+            return pass(parts.getMaterial(part));
+        }
+
+        /**
+         * passes the light through a hit
+         *
+         * @param material the material of the geometry that was hit
+         * @return false if the segment is blocked
+         */
+        private boolean pass(Material material) {
+            transmittance = transmittance.product(material.getKt());
+            if (transmittance.lowerThan(minTransmittance)) {
+                transmittance = Double3.ZERO;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * getter for the result of the query
+         *
+         * @return the transmittance of the segment, or Double3.ZERO if the segment is blocked
+         */
+        public Double3 getResult() {
+            return transmittance;
+        }
+    }
+
+    /**
+     * Keeps all the hits, as the list of intersections of {@link Intersectable#findGeoIntersections(Ray)}
+     */
+    public static class All extends HitCollector {
+        /**
+         * the ray of the query
+         */
+        private Ray ray;
+
+        /**
+         * the hits so far, or null if there are none
+         */
+        private List<GeoPoint> hits;
+
+        /**
+         * prepares the collector for a query
+         *
+         * @param ray the ray of the query
+         * @return this
+         */
+        public All reset(Ray ray) {
+            this.ray = ray;
+            maxDistance = Double.POSITIVE_INFINITY;
+            hits = null;
+            return this;
+        }
+
+        @Override
+        protected boolean collect(Geometry geometry, double distance) {
+            if (hits == null)
+                hits = new LinkedList<>();
+            hits.add(new GeoPoint(geometry, ray.getPoint(distance), distance));
+            return true;
+        }
+
+        /**
+         * getter for the result of the query
+         *
+         * @return the hits, or null if there are none
+         */
+        public List<GeoPoint> getResult() {
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.List;
+
+/**
+ * A copy of a shared model placed in the scene by an affine transformation.
+ * The rays are moved into the space of the model, the model (with its own hierarchy) is intersected there,
+ * and the hits are moved back, so any number of instances share the geometries and the hierarchy of one model.
+ * The instances themselves are bounded geometries, and a hierarchy built over them is the top level structure.
+ */
+public class Instance extends Intersectable {
+    /**
+     * the shared model, usually a {@link Geometries} with a hierarchy already built
+     */
+    private final Intersectable model;
+
+    /**
+     * the transformation from the space of the model to the scene
+     */
+    private final Transform transform;
+
+    /**
+     * Constructs an instance of a model
+     *
+     * @param model     the shared model
+     * @param transform transformation from the space of the model to the scene
+     */
+    public Instance(Intersectable model, Transform transform) {
+        this.model = model;
+        this.transform = transform;
+        createBoundingBox();
+    }
+
+    /**
+     * getter for the shared model
+     *
+     * @return the model
+     */
+    public Intersectable getModel() {
+        return model;
+    }
+
+    /**
+     * getter for the transformation
+     *
+     * @return transformation from the space of the model to the scene
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * create boundary box for object - the box around the transformed corners of the model box
+     */
+    @Override
+    public void createBoundingBox() {
+        if (model._box == null) {
+            _box = null;
+            return;
+        }
+        Point min = model._box._minimums;
+        Point max = model._box._maximums;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 8; ++corner) {
+            Point p = transform.transformPoint(new Point((corner & 1) == 0 ? min.getX() : max.getX(),
+                    (corner & 2) == 0 ? min.getY() : max.getY(),
+                    (corner & 4) == 0 ? min.getZ() : max.getZ()));
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        _box = new BoundingBox(new Point(minX, minY, minZ), new Point(maxX, maxY, maxZ));
+    }
+
+    /**
+     * @param ray ray in the scene
+     * @return the ray in the space of the model
+     */
+    private Ray toModel(Ray ray) {
+        return new Ray(transform.inverseTransformPoint(ray.getP0()), transform.inverseTransformVector(ray.getDir()));
+    }
+
+    /**
+     * @param ray ray in the scene
+     * @return the length in the space of the model of a unit length along the ray
+     */
+    private double scale(Ray ray) {
+        // the direction of the ray is normalized, so the length of its image is the scale along the ray
+        return transform.inverseTransformVector(ray.getDir()).length();
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        return collectHits(ray);
+    }
+
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        return model.findHits(toModel(ray), new InstanceCollector(collector, scale(ray)));
+    }
+
+    /**
+     * Receives the hits found in the space of the model and passes them to the collector of the scene,
+     * with the geometries seen through the instance and the distances moved to the scene. The geometries are
+     * wrapped for the hits in range only, and the parts of a geometry made of parts are still created only
+     * for the hits the collector of the scene keeps.
+     */
+    private class InstanceCollector extends HitCollector {
+        /**
+         * the collector of the scene
+         */
+        private final HitCollector collector;
+
+        /**
+         * the length in the space of the model of a unit length along the ray
+         */
+        private final double scale;
+
+        /**
+         * @param collector the collector of the scene
+         * @param scale     the length in the space of the model of a unit length along the ray
+         */
+        InstanceCollector(HitCollector collector, double scale) {
+            this.collector = collector;
+            this.scale = scale;
+        }
+
+        @Override
+        public double getMaxDistance() {
+            double maxDistance = collector.getMaxDistance();
+            return maxDistance == Double.POSITIVE_INFINITY ? maxDistance : maxDistance * scale;
+        }
+
+        @Override
+        protected boolean collect(Geometry geometry, double distance) {
+            return collector.offer(new InstanceGeometry(geometry), distance / scale);
+        }
+
+        @Override
+        protected boolean collect(GeometryParts parts, int part, double distance) {
+            return collector.offer(new InstanceParts(parts), part, distance / scale);
+        }
+    }
+
+    /**
+     * A geometry of the model made of parts, seen through the instance - its parts are seen through the instance
+     */
+    private class InstanceParts implements GeometryParts {
+        /**
+         * the geometry made of parts in the model
+         */
+        private final GeometryParts parts;
+
+        /**
+         * @param parts the geometry made of parts in the model
+         */
+        InstanceParts(GeometryParts parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public Geometry getPart(int part) {
+            return new InstanceGeometry(parts.getPart(part));
+        }
+
+        @Override
+        public Material getMaterial(int part) {
+            return parts.getMaterial(part);
+        }
+    }
+
+    /**
+     * A geometry of the model seen through the instance - it has the emission and the material of the
+     * geometry of the model, and its normals are moved to the scene
+     */
+    private class InstanceGeometry extends Geometry {
+        /**
+         * the geometry in the model
+         */
+        private final Geometry geometry;
+
+        /**
+         * @param geometry the geometry in the model
+         */
+        InstanceGeometry(Geometry geometry) {
+            super(null);
+            this.geometry = geometry;
+        }
+
+        @Override
+        public Color getEmission() {
+            return geometry.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return geometry.getMaterial();
+        }
+
+        @Override
+        public Vector getNormal(Point point) {
+            return transform.transformNormal(geometry.getNormal(transform.inverseTransformPoint(point)));
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            return collectHits(ray);
+        }
+
+        @Override
+        protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+            return geometry.findHits(toModel(ray), new InstanceCollector(collector, scale(ray)));
+        }
+
+        /**
+         * create boundary box for object - the geometry is only reported in hits of the instance, so it has no box
+         */
+        @Override
+        public void createBoundingBox() {
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package geometries;
 import java.util.List;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -58,6 +60,32 @@ public abstract class Intersectable {
             _minimums = minimums;
             _maximums = maximums;
         }
+
+        /**
+         * return true if ray intersects the box
+         *
+         * @param ray ray to check
+         * @return whether ray intersects box
+         */
+        public boolean isIntersecting(Ray ray) {
+            return entryDistance(ray, Double.POSITIVE_INFINITY) != Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * finds the distance along the ray at which it enters the box
+         *
+         * @param ray         ray to check
+         * @param maxDistance the box is counted as missed if the ray enters it farther than this distance
+         * @return the entry distance, 0 if the ray starts inside the box,
+         * or Double.POSITIVE_INFINITY if the ray misses the box
+         */
+        public double entryDistance(Ray ray, double maxDistance) {
+            Vector dir = ray.getDir();
+            Point p0 = ray.getP0();
+            return BvhNodes.entryDistance(_minimums.getX(), _minimums.getY(), _minimums.getZ(),
+                    _maximums.getX(), _maximums.getY(), _maximums.getZ(), p0.getX(), p0.getY(), p0.getZ(),
+                    1 / dir.getX(), 1 / dir.getY(), 1 / dir.getZ(), maxDistance);
+        }
     }
 
     /**
@@ -70,63 +98,38 @@ public abstract class Intersectable {
      *
      * @param ray ray to check
      * @return whether ray intersects box
-     * code taken from scratchapixel.com
-     * https://www.scratchapixel.com/lessons/3d-basic-rendering/introduction-acceleration-structure/bounding-volume-hierarchy-BVH-part1
      */
     public boolean isIntersectingBoundingBox(Ray ray) {
         if (!_bvhIsOn || _box == null)
             return true;
-        Vector dir = ray.getDir();
-        Point p0 = ray.getP0();
-        double tmin = (_box._minimums.getX() - p0.getX()) / dir.getX();
-        double tmax = (_box._maximums.getX() - p0.getX()) / dir.getX();
-
-        if (tmin > tmax) {
-            double temp = tmin;
-            tmin = tmax;
-            tmax = temp;
-        }
-
-
-        double tymin = (_box._minimums.getY() - p0.getY()) / dir.getY();
-        double tymax = (_box._maximums.getY() - p0.getY()) / dir.getY();
-
-        if (tymin > tymax) {
-            double temp = tymin;
-            tymin = tymax;
-            tymax = temp;
-        }
-
-        if ((tmin > tymax) || (tymin > tmax))
-            return false;
-
-        if (tymin > tmin)
-            tmin = tymin;
-
-        if (tymax < tmax)
-            tmax = tymax;
-
-        double tzmin = (_box._minimums.getZ() - p0.getZ()) / dir.getZ();
-        double tzmax = (_box._maximums.getZ() - p0.getZ()) / dir.getZ();
-
-        if (tzmin > tzmax) {
-            double temp = tzmin;
-            tzmin = tzmax;
-            tzmax = temp;
-        }
-
-        if ((tmin > tzmax) || (tzmin > tmax))
-            return false;
-
-        if (tzmin > tmin)
-            tmin = tzmin;
+        return _box.isIntersecting(ray);
+    }
 
-        if (tzmax < tmax)
-            tmax = tzmax;
 
-        return true;
+    /**
+     * return true if ray intersects the bounding box of the object not farther than a given distance
+     *
+     * @param ray         ray to check
+     * @param maxDistance maximal distance along the ray
+     * @return whether ray intersects box
+     */
+    public boolean isIntersectingBoundingBox(Ray ray, double maxDistance) {
+        return boundingBoxDistance(ray, maxDistance) != Double.POSITIVE_INFINITY;
     }
 
+    /**
+     * finds the distance along the ray at which it enters the bounding box of the object
+     *
+     * @param ray         ray to check
+     * @param maxDistance maximal distance along the ray
+     * @return the entry distance, 0 if there is no box to check,
+     * or Double.POSITIVE_INFINITY if the ray misses the box
+     */
+    protected double boundingBoxDistance(Ray ray, double maxDistance) {
+        if (!_bvhIsOn || _box == null)
+            return 0;
+        return _box.entryDistance(ray, maxDistance);
+    }
 
     /**
      * Finds all intersections between the implementing geometry and a given Ray.
@@ -140,12 +143,33 @@ public abstract class Intersectable {
     }
 
 
+    /**
+     * A hit of a ray - the geometry and the point, with what is known about the hit kept along with them:
+     * the distance from the head of the ray, given by the intersection, and the normal and the material of the
+     * geometry, found on their first use
+     */
     public static class GeoPoint {
 
         public Geometry geometry;
 
         public Point point;
 
+        /**
+         * the distance of the point from the head of the ray - the ray parameter, as the directions of rays are
+         * normalized - or NaN until it is known
+         */
+        private double distance;
+
+        /**
+         * the normal of the geometry at the point, or null until it is needed
+         */
+        private Vector normal = null;
+
+        /**
+         * the material of the geometry, or null until it is needed
+         */
+        private Material material = null;
+
         /**
          * constructor of the helper class
          *
@@ -153,8 +177,54 @@ public abstract class Intersectable {
          * @param point
          */
         public GeoPoint(Geometry geometry, Point point) {
+            this(geometry, point, Double.NaN);
+        }
+
+        /**
+         * constructor of a hit with a known distance
+         *
+         * @param geometry the geometry that was hit
+         * @param point    the point of the hit
+         * @param distance the distance of the point from the head of the ray
+         */
+        public GeoPoint(Geometry geometry, Point point, double distance) {
             this.geometry = geometry;
             this.point = point;
+            this.distance = distance;
+        }
+
+        /**
+         * getter for the distance of the hit, found from the ray if the intersection did not give it
+         *
+         * @param ray the ray that found the hit
+         * @return the distance of the point from the head of the ray
+         */
+        public double getDistance(Ray ray) {
+            if (Double.isNaN(distance))
+                distance = ray.getP0().distance(point);
+            return distance;
+        }
+
+        /**
+         * getter for the normal of the geometry at the point, found once
+         *
+         * @return the normal
+         */
+        public Vector getNormal() {
+            if (normal == null)
+                normal = geometry.getNormal(point);
+            return normal;
+        }
+
+        /**
+         * getter for the material of the geometry, found once
+         *
+         * @return the material
+         */
+        public Material getMaterial() {
+            if (material == null)
+                material = geometry.getMaterial();
+            return material;
         }
 
         @Override
@@ -182,4 +252,92 @@ public abstract class Intersectable {
 
     protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray);
 
+    /**
+     * Finds all the intersections, on behalf of geometries that implement their list of intersections
+     * on top of {@link #findHitsHelper(Ray, HitCollector)}, without checking the bounding box
+     *
+     * @param ray the ray to find intersections with
+     * @return the intersections, or null if there are none
+     */
+    protected List<GeoPoint> collectHits(Ray ray) {
+        HitCollector.All all = new HitCollector.All().reset(ray);
+        findHitsHelper(ray, all);
+        return all.getResult();
+    }
+
+    /**
+     * Pushes the hits of the ray in the range of the collector into it, one at a time, without building lists
+     *
+     * @param ray       the ray to find intersections with
+     * @param collector receives the hits, and bounds the search with its maximal distance
+     * @return false if the collector stopped the search
+     */
+    public boolean findHits(Ray ray, HitCollector collector) {
+        if (_bvhIsOn && !isIntersectingBoundingBox(ray, collector.getMaxDistance()))
+            return true;
+
+        return findHitsHelper(ray, collector);
+    }
+
+    /**
+     * Pushes the hits of the ray into the collector, without checking the bounding box.
+     * The default implementation offers all the intersections of the geometry.
+     *
+     * @param ray       the ray to find intersections with
+     * @param collector receives the hits, and bounds the search with its maximal distance
+     * @return false if the collector stopped the search
+     */
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray);
+        if (intersections == null)
+            return true;
+
+        for (GeoPoint geoPoint : intersections)
+            if (!collector.offer(geoPoint.geometry, geoPoint.getDistance(ray)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Finds the intersection closest to the head of the ray
+     *
+     * @param ray the ray to find intersection with
+     * @return the closest intersection, or null if there is none
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the intersection closest to the head of the ray, ignoring intersections
+     * at the given distance or farther
+     *
+     * @param ray         the ray to find intersection with
+     * @param maxDistance the distance of the closest intersection found so far
+     * @return the closest intersection, or null if there is none closer than maxDistance
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        HitCollector.Closest closest = new HitCollector.Closest().reset(ray, maxDistance);
+        findHits(ray, closest);
+        return closest.getResult();
+    }
+
+    /**
+     * Finds how much light passes through the geometry along a segment of the ray.
+     * Every intersection on the segment multiplies the transmittance by the transparency of its material.
+     *
+     * @param ray              the ray from the lighted point towards the light
+     * @param maxDistance      the length of the segment - the distance to the light
+     * @param transmittance    the transmittance gathered on the segment so far
+     * @param minTransmittance once all the components of the transmittance are lower than this value
+     *                         the segment counts as fully blocked
+     * @return the transmittance after passing this geometry, or Double3.ZERO if the segment is blocked
+     */
+    public Double3 findTransmittance(Ray ray, double maxDistance, Double3 transmittance, double minTransmittance) {
+        HitCollector.Transmittance collector = new HitCollector.Transmittance()
+                .reset(maxDistance, transmittance, minTransmittance);
+        findHits(ray, collector);
+        return collector.getResult();
+    }
+
 }
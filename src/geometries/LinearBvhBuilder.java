@@ -0,0 +1,264 @@
+package geometries;
+
+import geometries.Intersectable.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builder of a linear bounding volume hierarchy (LBVH).
+ * The centroids of the geometries boxes are given 30 bit Morton codes, the geometries are sorted by their
+ * codes, and the hierarchy is split at the highest bit the codes of a range differ in.
+ * All the stages run as fork/join tasks on the common pool.
+ */
+class LinearBvhBuilder {
+    /**
+     * ranges smaller than this are handled in the current task instead of being forked
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    /**
+     * number of cells along each axis of the Morton grid (10 bits)
+     */
+    private static final int MORTON_CELLS = 1 << 10;
+
+    /**
+     * the geometries in their original order
+     */
+    private final List<Intersectable> geometries;
+
+    /**
+     * sorted keys, each a Morton code in the high half and a geometry index in the low half
+     */
+    private final long[] keys;
+
+    /**
+     * private constructor - the builder is used through {@link #build(List)}
+     *
+     * @param geometries the geometries to arrange
+     */
+    private LinearBvhBuilder(List<Intersectable> geometries) {
+        this.geometries = geometries;
+        this.keys = new long[geometries.size()];
+    }
+
+    /**
+     * arranges bounded geometries into a linear bounding volume hierarchy
+     *
+     * @param geometries bounded geometries
+     * @return the root of the hierarchy
+     */
+    static Intersectable build(List<Intersectable> geometries) {
+        if (geometries.size() == 1)
+            return geometries.get(0);
+        LinearBvhBuilder builder = new LinearBvhBuilder(new ArrayList<>(geometries));
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        double[] bounds = pool.invoke(builder.new CentroidBoundsTask(0, geometries.size()));
+        pool.invoke(builder.new MortonTask(0, geometries.size(), bounds));
+        Arrays.parallelSort(builder.keys);
+        return pool.invoke(builder.new NodeTask(0, geometries.size() - 1));
+    }
+
+    /**
+     * @param box  bounding box
+     * @param axis 0 for x, 1 for y, 2 for z
+     * @return the coordinate of the box center along the axis
+     */
+    private static double centroid(BoundingBox box, int axis) {
+        return switch (axis) {
+            case 0 -> (box._minimums.getX() + box._maximums.getX()) / 2;
+            case 1 -> (box._minimums.getY() + box._maximums.getY()) / 2;
+            default -> (box._minimums.getZ() + box._maximums.getZ()) / 2;
+        };
+    }
+
+    /**
+     * spreads the 10 lowest bits of a number so there are two zero bits between every two bits
+     *
+     * @param v the number
+     * @return the spread bits
+     */
+    private static int expandBits(int v) {
+        v = (v * 0x00010001) & 0xFF0000FF;
+        v = (v * 0x00000101) & 0x0F00F00F;
+        v = (v * 0x00000011) & 0xC30C30C3;
+        v = (v * 0x00000005) & 0x49249249;
+        return v;
+    }
+
+    /**
+     * @param index index in the sorted keys
+     * @return the Morton code of the key
+     */
+    private int code(int index) {
+        return (int) (keys[index] >>> 32);
+    }
+
+    /**
+     * finds the bounds of the centroids of the geometries in a range: {minX, minY, minZ, maxX, maxY, maxZ}
+     */
+    private class CentroidBoundsTask extends RecursiveTask<double[]> {
+        /**
+         * the version of the serialized form of the task
+         */
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        /**
+         * @param from first index (inclusive)
+         * @param to   last index (exclusive)
+         */
+        CentroidBoundsTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                CentroidBoundsTask left = new CentroidBoundsTask(from, middle);
+                left.fork();
+                double[] bounds = new CentroidBoundsTask(middle, to).compute();
+                double[] leftBounds = left.join();
+                for (int axis = 0; axis < 3; ++axis) {
+                    bounds[axis] = Math.min(bounds[axis], leftBounds[axis]);
+                    bounds[axis + 3] = Math.max(bounds[axis + 3], leftBounds[axis + 3]);
+                }
+                return bounds;
+            }
+            double[] bounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+            for (int i = from; i < to; ++i) {
+                BoundingBox box = geometries.get(i)._box;
+                for (int axis = 0; axis < 3; ++axis) {
+                    double c = centroid(box, axis);
+                    bounds[axis] = Math.min(bounds[axis], c);
+                    bounds[axis + 3] = Math.max(bounds[axis + 3], c);
+                }
+            }
+            return bounds;
+        }
+    }
+
+    /**
+     * calculates the keys of the geometries in a range
+     */
+    private class MortonTask extends RecursiveAction {
+        /**
+         * the version of the serialized form of the task
+         */
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final double[] bounds;
+
+        /**
+         * @param from   first index (inclusive)
+         * @param to     last index (exclusive)
+         * @param bounds the bounds of all the centroids
+         */
+        MortonTask(int from, int to, double[] bounds) {
+            this.from = from;
+            this.to = to;
+            this.bounds = bounds;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MortonTask(from, middle, bounds), new MortonTask(middle, to, bounds));
+                return;
+            }
+            for (int i = from; i < to; ++i) {
+                BoundingBox box = geometries.get(i)._box;
+                int code = 0;
+                for (int axis = 0; axis < 3; ++axis) {
+                    double extent = bounds[axis + 3] - bounds[axis];
+                    int cell = extent <= 0 ? 0
+                            : (int) Math.min(MORTON_CELLS - 1,
+                            (centroid(box, axis) - bounds[axis]) / extent * MORTON_CELLS);
+                    code |= expandBits(cell) << (2 - axis);
+                }
+                keys[i] = ((long) code << 32) | i;
+            }
+        }
+    }
+
+    /**
+     * builds the node of a range of the sorted geometries
+     */
+    private class NodeTask extends RecursiveTask<Intersectable> {
+        /**
+         * the version of the serialized form of the task
+         */
+        private static final long serialVersionUID = 1L;
+
+        private final int first;
+        private final int last;
+
+        /**
+         * @param first first index (inclusive)
+         * @param last  last index (inclusive)
+         */
+        NodeTask(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected Intersectable compute() {
+            if (first == last)
+                return geometries.get((int) keys[first]);
+            if (last - first < Geometries.MAX_GEOMETRIES_IN_LEAF) {
+                List<Intersectable> leaf = new ArrayList<>();
+                for (int i = first; i <= last; ++i)
+                    leaf.add(geometries.get((int) keys[i]));
+                return new Geometries(leaf);
+            }
+
+            int split = findSplit();
+            NodeTask left = new NodeTask(first, split);
+            NodeTask right = new NodeTask(split + 1, last);
+            if (last - first > SEQUENTIAL_THRESHOLD) {
+                left.fork();
+                Intersectable rightNode = right.compute();
+                return new Geometries(List.of(left.join(), rightNode));
+            }
+            return new Geometries(List.of(left.compute(), right.compute()));
+        }
+
+        /**
+         * finds the last index of the left half - the highest index whose code
+         * shares more leading bits with the first code than the last code does
+         *
+         * @return the split index
+         */
+        private int findSplit() {
+            int firstCode = code(first);
+            int lastCode = code(last);
+            if (firstCode == lastCode)
+                return (first + last) >>> 1;
+
+            int commonPrefix = Integer.numberOfLeadingZeros(firstCode ^ lastCode);
+            int split = first;
+            int step = last - first;
+            do {
+                step = (step + 1) >>> 1;
+                int newSplit = split + step;
+                if (newSplit < last && Integer.numberOfLeadingZeros(firstCode ^ code(newSplit)) > commonPrefix)
+                    split = newSplit;
+            } while (step > 1);
+            return split;
+        }
+    }
+}
@@ -74,25 +74,31 @@ public class Plane extends Geometry {
         return normal;
     }
 
-    @Override
-    protected List <GeoPoint> findGeoIntersectionsHelper(Ray ray){
+    /**
+     * finds the distance along the ray to its intersection with the plane
+     *
+     * @param ray the ray to intersect with the plane
+     * @return the distance, or Double.POSITIVE_INFINITY if there is no intersection
+     */
+    private double intersectionDistance(Ray ray){
          Point p0=ray.getP0(); //get point p0
          Vector v=ray.getDir(); //get direction of the vector
 
         Vector n= normal;
 
-        if(q0.equals(p0)){ //if they equal-there is no Intersections between them
-            return null;
-        }
+        // the vector from p0 to q0, kept in primitives
+        double qx=q0.getX()-p0.getX(), qy=q0.getY()-p0.getY(), qz=q0.getZ()-p0.getZ();
 
-        Vector p0_q0=q0.subtract(p0);
+        if(isZero(qx) && isZero(qy) && isZero(qz)){ //if they equal-there is no Intersections between them
+            return Double.POSITIVE_INFINITY;
+        }
 
         //numerator
-        double n_p0q0=alignZero(n.dotProduct(p0_q0));
+        double n_p0q0=alignZero(n.getX()*qx+n.getY()*qy+n.getZ()*qz);
 
         //because then t will be equal to 0
         if(isZero(n_p0q0)){
-            return null;
+            return Double.POSITIVE_INFINITY;
         }
 
         //denominator
@@ -100,18 +106,23 @@ public class Plane extends Geometry {
 
         //denominator can't be zero -ray is lying in the plane axis
         if(isZero(nv)){
-            return null;
+            return Double.POSITIVE_INFINITY;
         }
 
         double t = alignZero(n_p0q0/nv);
 
-        if(t<=0){
-            return null;
-        }
+        return t<=0 ? Double.POSITIVE_INFINITY : t;
+    }
 
-        Point point = ray.getPoint(t);
+    @Override
+    protected List <GeoPoint> findGeoIntersectionsHelper(Ray ray){
+        double t = intersectionDistance(ray);
+        return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this,ray.getPoint(t),t));
+    }
 
-        return List.of(new GeoPoint(this,point));
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector){
+        return collector.offer(this, intersectionDistance(ray));
     }
 
 }
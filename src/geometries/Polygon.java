@@ -22,6 +22,19 @@ public class Polygon extends Geometry {
     protected final Plane plane;
     private final int size;
 
+    /**
+     * the normal of the plane and the offset of the plane along it, kept as numbers for the intersection test
+     */
+    private final double nx, ny, nz, d;
+
+    /**
+     * for every edge, the unit normal of the edge in the plane of the polygon pointing into the polygon,
+     * and the offset of the edge along it - four numbers per edge.
+     * A point of the plane is inside the polygon when it is past all the edges.
+     * Null for a triangle, which has an intersection test of its own.
+     */
+    private final double[] edges;
+
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
      * path. The polygon must be convex.
@@ -45,6 +58,19 @@ public class Polygon extends Geometry {
      *                                  </ul>
      */
     public Polygon(Point... vertices) {
+        this(vertices, true);
+    }
+
+    /**
+     * Polygon constructor for subclasses that intersect the polygon by a test of their own, like a
+     * {@link Triangle}, and need only its plane - the normals of the edges are not calculated
+     *
+     * @param vertices    list of vertices according to their order by edge path
+     * @param edgeNormals false to skip the normals of the edges
+     * @throws IllegalArgumentException in any case of illegal combination of vertices,
+     *                                  see {@link #Polygon(Point...)}
+     */
+    protected Polygon(Point[] vertices, boolean edgeNormals) {
         if (vertices.length < 3)
             throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
         this.vertices = List.of(vertices);
@@ -54,9 +80,18 @@ public class Polygon extends Geometry {
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane = new Plane(vertices[0], vertices[1], vertices[2]);
-        if (size == 3) return; // no need for more tests for a Triangle
-
         Vector n = plane.getNormal();
+        nx = n.getX();
+        ny = n.getY();
+        nz = n.getZ();
+        d = nx * vertices[0].getX() + ny * vertices[0].getY() + nz * vertices[0].getZ();
+        if (size == 3) { // no need for more tests for a Triangle
+            edges = edgeNormals ? edgeNormals(vertices, n) : null;
+            if (_bvhIsOn)
+                createBoundingBox();
+            return;
+        }
+
         // Subtracting any subsequent points will throw an IllegalArgumentException
         // because of Zero Vector if they are in the same point
         Vector edge1 = vertices[vertices.length - 1].subtract(vertices[vertices.length - 2]);
@@ -82,10 +117,36 @@ public class Polygon extends Geometry {
             if (positive != (edge1.crossProduct(edge2).dotProduct(n) > 0))
                 throw new IllegalArgumentException("All vertices must be ordered and the polygon must be convex");
         }
+        edges = edgeNormals ? edgeNormals(vertices, n) : null;
         if (_bvhIsOn)
             createBoundingBox();
     }
 
+    /**
+     * calculates the normals of the edges in the plane of the polygon
+     *
+     * @param vertices the vertices of the polygon
+     * @param n        the normal of the plane
+     * @return four numbers per edge - the unit normal pointing into the polygon and the offset of the edge along it
+     */
+    private static double[] edgeNormals(Point[] vertices, Vector n) {
+        // the cross product of the normal and an edge points into the polygon
+        // if the vertices are ordered counterclockwise around the normal, and outwards otherwise
+        double orientation = n.crossProduct(vertices[1].subtract(vertices[0]))
+                .dotProduct(vertices[2].subtract(vertices[0])) > 0 ? 1 : -1;
+        double[] edges = new double[4 * vertices.length];
+        for (int i = 0; i < vertices.length; ++i) {
+            Vector inward = n.crossProduct(vertices[(i + 1) % vertices.length].subtract(vertices[i])).normalize()
+                    .scale(orientation);
+            edges[4 * i] = inward.getX();
+            edges[4 * i + 1] = inward.getY();
+            edges[4 * i + 2] = inward.getZ();
+            edges[4 * i + 3] = inward.getX() * vertices[i].getX() + inward.getY() * vertices[i].getY()
+                    + inward.getZ() * vertices[i].getZ();
+        }
+        return edges;
+    }
+
     /**
      * create boundary box for object
      */
@@ -118,6 +179,34 @@ public class Polygon extends Geometry {
 
 
 
+    /**
+     * Finds the distance of the intersection of the ray with the polygon: the ray is intersected with the plane,
+     * and the hit is checked against the edge normals. Hits on the edges and the vertices are not counted.
+     *
+     * @param ray The ray to intersect with the polygon.
+     * @return the distance of the intersection, or Double.POSITIVE_INFINITY if there is none
+     */
+    private double intersectionDistance(Ray ray) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        // the ray is parallel to the plane
+        double nv = alignZero(nx * dx + ny * dy + nz * dz);
+        if (nv == 0)
+            return Double.POSITIVE_INFINITY;
+        double t = alignZero((d - nx * ox - ny * oy - nz * oz) / nv);
+        if (t <= 0)
+            return Double.POSITIVE_INFINITY;
+
+        double x = ox + t * dx, y = oy + t * dy, z = oz + t * dz;
+        for (int i = 0; i < edges.length; i += 4)
+            if (alignZero(edges[i] * x + edges[i + 1] * y + edges[i + 2] * z - edges[i + 3]) <= 0)
+                return Double.POSITIVE_INFINITY;
+        return t;
+    }
+
     /**
      * Finds the intersection point between a given ray and a polygon.
      * @param ray The ray to intersect with the polygon.
@@ -125,43 +214,12 @@ public class Polygon extends Geometry {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        // Find the intersection point with the plane
-        List<Point> planeIntersections = plane.findIntersections(ray);
-        if (planeIntersections == null)
-            return null;
-
-        // Get the first intersection point and initialize variables for checking if it's inside the polygon
-        Point p = planeIntersections.get(0);
-        Point p0 = ray.getP0();
-        Vector v = ray.getDir();
-        double oldSign = 0;
-        double sign = 0;
-
-        // Calculate the signs of the cross products between the ray direction vector and the edges of the polygon
-        Vector v1 = vertices.get(1).subtract(p0);
-        Vector v2 = vertices.get(0).subtract(p0);
-        try {
-            oldSign = v.dotProduct(v1.crossProduct(v2));
-        } catch (IllegalArgumentException e) {
-            System.out.println(this.vertices);
-        }
-        if (isZero(oldSign))
-            return null;
-
-        // Iterate through the remaining edges of the polygon and check if the signs of the cross products change
-        for (int i = vertices.size() - 1; i > 0; --i) {
-            v1 = v2;
-            v2 = vertices.get(i).subtract(p0);
-            sign = alignZero(v.dotProduct(v1.crossProduct(v2)));
-            if ((oldSign * sign) <= 0)
-                return null;
-        }
+        double t = intersectionDistance(ray);
+        return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
 
-        // If the intersection point is inside the polygon, return it in a list
-        return List.of(new GeoPoint(this,p));
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        return collector.offer(this, intersectionDistance(ray));
     }
 }
-
-
-
-
@@ -0,0 +1,223 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+
+/**
+ * Bounding volume hierarchy over primitives that a geometry keeps in flat arrays of its own,
+ * like the faces of a {@link TriangleMesh} or the spheres of a {@link SphereSet}.
+ * Every node is split at the median of the centers of the primitive boxes, along the axis they spread the most.
+ * The nodes are kept in the layout of {@link FlatBvh}, and the primitives are referred to by their position
+ * in the order of the leaves, so a geometry may store its primitives in that order and scan every leaf
+ * as one contiguous run.
+ */
+final class PrimitiveBvh {
+    /**
+     * visits the primitives of a leaf whose box the ray passes through
+     */
+    interface Visitor {
+        /**
+         * @param first position of the first primitive of the leaf in the order of the leaves
+         * @param count number of primitives in the leaf, consecutive in the order of the leaves
+         * @return false to stop the traversal
+         */
+        boolean visit(int first, int count);
+    }
+
+    /**
+     * the indices of the primitives, in the order of the leaves
+     */
+    final int[] order;
+
+    /**
+     * the nodes of the hierarchy, the items of the leaves are positions in the order of the leaves
+     */
+    private final BvhNodes tree = new BvhNodes();
+
+    /**
+     * depth of the deepest node
+     */
+    private int maxDepth = 1;
+
+    /**
+     * Builds a hierarchy
+     *
+     * @param primitiveBounds the boxes of the primitives, six numbers per primitive: minX, minY, minZ, maxX, maxY, maxZ
+     * @param maxInLeaf       maximal number of primitives in a leaf
+     */
+    PrimitiveBvh(double[] primitiveBounds, int maxInLeaf) {
+        int count = primitiveBounds.length / 6;
+        order = new int[count];
+        double[] centers = new double[3 * count];
+        for (int i = 0; i < count; ++i) {
+            order[i] = i;
+            for (int axis = 0; axis < 3; ++axis)
+                centers[3 * i + axis] = (primitiveBounds[6 * i + axis] + primitiveBounds[6 * i + axis + 3]) / 2;
+        }
+        build(tree.allocate(1), 0, count, primitiveBounds, centers, maxInLeaf, 1);
+        tree.trim();
+    }
+
+    /**
+     * @return the corner of the box of all the primitives with the minimal coordinates
+     */
+    Point minimums() {
+        return new Point(tree.bounds[0], tree.bounds[1], tree.bounds[2]);
+    }
+
+    /**
+     * @return the corner of the box of all the primitives with the maximal coordinates
+     */
+    Point maximums() {
+        return new Point(tree.bounds[3], tree.bounds[4], tree.bounds[5]);
+    }
+
+    /**
+     * fills the node at the given index and recursively all the nodes under it
+     *
+     * @param node            the node index
+     * @param from            position of the first primitive of the node
+     * @param to              position after the last primitive of the node
+     * @param primitiveBounds the boxes of the primitives
+     * @param centers         the centers of the boxes of the primitives, three numbers per primitive
+     * @param maxInLeaf       maximal number of primitives in a leaf
+     * @param depth           depth of the node
+     */
+    private void build(int node, int from, int to, double[] primitiveBounds, double[] centers, int maxInLeaf,
+                       int depth) {
+        maxDepth = Math.max(maxDepth, depth);
+        double[] centerBounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        // the arrays are not reallocated before the children are allocated
+        double[] bounds = tree.bounds;
+        int b = 6 * node;
+        for (int axis = 0; axis < 3; ++axis) {
+            bounds[b + axis] = Double.POSITIVE_INFINITY;
+            bounds[b + axis + 3] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = from; i < to; ++i) {
+            int primitive = order[i];
+            for (int axis = 0; axis < 3; ++axis) {
+                bounds[b + axis] = Math.min(bounds[b + axis], primitiveBounds[6 * primitive + axis]);
+                bounds[b + axis + 3] = Math.max(bounds[b + axis + 3], primitiveBounds[6 * primitive + axis + 3]);
+                centerBounds[axis] = Math.min(centerBounds[axis], centers[3 * primitive + axis]);
+                centerBounds[axis + 3] = Math.max(centerBounds[axis + 3], centers[3 * primitive + axis]);
+            }
+        }
+        if (to - from <= maxInLeaf) {
+            tree.nodes[2 * node] = from;
+            tree.nodes[2 * node + 1] = to - from;
+            return;
+        }
+
+        int axis = 0;
+        for (int a = 1; a < 3; ++a)
+            if (centerBounds[a + 3] - centerBounds[a] > centerBounds[axis + 3] - centerBounds[axis])
+                axis = a;
+        int middle = (from + to) >>> 1;
+        select(from, to - 1, middle, centers, axis);
+
+        int first = tree.allocate(2);
+        tree.nodes[2 * node] = first;
+        tree.nodes[2 * node + 1] = -2;
+        build(first, from, middle, primitiveBounds, centers, maxInLeaf, depth + 1);
+        build(first + 1, middle, to, primitiveBounds, centers, maxInLeaf, depth + 1);
+    }
+
+    /**
+     * reorders the primitives in a range so the primitive at the given position has the center it would have
+     * if the range was sorted along the axis, with smaller centers before it and larger after it
+     *
+     * @param left    position of the first primitive of the range
+     * @param right   position of the last primitive of the range
+     * @param k       the position to fix
+     * @param centers the centers of the boxes of the primitives
+     * @param axis    0 for x, 1 for y, 2 for z
+     */
+    private void select(int left, int right, int k, double[] centers, int axis) {
+        while (left < right) {
+            double pivot = centers[3 * order[(left + right) >>> 1] + axis];
+            int i = left, j = right;
+            while (i <= j) {
+                while (centers[3 * order[i] + axis] < pivot)
+                    ++i;
+                while (centers[3 * order[j] + axis] > pivot)
+                    --j;
+                if (i <= j) {
+                    int temp = order[i];
+                    order[i++] = order[j];
+                    order[j--] = temp;
+                }
+            }
+            if (k <= j)
+                right = j;
+            else if (k >= i)
+                left = i;
+            else
+                return;
+        }
+    }
+
+    /**
+     * visits the primitives of the leaves whose boxes the ray passes through, visiting the nearer child of every
+     * node first and skipping the nodes farther than the maximal distance of the collector, which is read anew
+     * for every node, so the traversal shrinks as the collector shrinks its range
+     *
+     * @param ray       the ray
+     * @param collector the collector of the hits, bounding the traversal
+     * @param visitor   called with every leaf, offering the hits of its primitives to the collector
+     * @return false if the visitor stopped the traversal
+     */
+    boolean traverse(Ray ray, HitCollector collector, Visitor visitor) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double ix = 1 / dir.getX(), iy = 1 / dir.getY(), iz = 1 / dir.getZ();
+        BvhNodes.Stack traversal = tree.takeStack(maxDepth + 1);
+        try {
+            int[] stack = traversal.nodes;
+            double[] entries = traversal.entries;
+            int top = 0;
+            entries[top] = tree.entryDistance(0, ox, oy, oz, ix, iy, iz, collector.getMaxDistance());
+            stack[top++] = 0;
+            while (top > 0) {
+                --top;
+                double maxDistance = collector.getMaxDistance();
+                if (entries[top] > maxDistance)
+                    continue;
+                int node = stack[top];
+                int first = tree.nodes[2 * node];
+                int count = tree.nodes[2 * node + 1];
+                if (count > 0) {
+                    if (!visitor.visit(first, count))
+                        return false;
+                    continue;
+                }
+                // push the farther child first, so the nearer one is visited first
+                double near = tree.entryDistance(first, ox, oy, oz, ix, iy, iz, maxDistance);
+                double far = tree.entryDistance(first + 1, ox, oy, oz, ix, iy, iz, maxDistance);
+                int nearChild = first, farChild = first + 1;
+                if (far < near) {
+                    double temp = near;
+                    near = far;
+                    far = temp;
+                    nearChild = first + 1;
+                    farChild = first;
+                }
+                if (far != Double.POSITIVE_INFINITY) {
+                    entries[top] = far;
+                    stack[top++] = farChild;
+                }
+                if (near != Double.POSITIVE_INFINITY) {
+                    entries[top] = near;
+                    stack[top++] = nearChild;
+                }
+            }
+            return true;
+        } finally {
+            tree.releaseStack(traversal);
+        }
+    }
+}
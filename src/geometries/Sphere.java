@@ -59,45 +59,49 @@ public class Sphere extends RadialGeometry {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        return collectHits(ray);
+    }
+
+    /**
+     * This method pushes the intersection points between a given ray and the sphere into the collector.
+     *
+     * @param ray       The ray to intersect with the sphere.
+     * @param collector Receives the intersection points.
+     * @return false if the collector stopped the search.
+     */
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
         Point p0 = ray.getP0(); // Ray's starting point
         Point O = this.center; // The sphere's center point
         Vector V = ray.getDir(); // "the v vector" from the presentation
 
+        // U is the vector from the ray's starting point to the sphere's center, kept in primitives
+        double ux = O.getX() - p0.getX(), uy = O.getY() - p0.getY(), uz = O.getZ() - p0.getZ();
+
         // If p0 is on the center, calculate with line parametric representation
         // using the normalized direction vector.
-        if (O.equals(p0)) {
-            Point newPoint = p0.add(ray.getDir().scale(this.radius));
-            return List.of(new GeoPoint(this, newPoint));
-        }
+        if (isZero(ux) && isZero(uy) && isZero(uz))
+            return collector.offer(this, this.radius);
 
-        Vector U = O.subtract(p0); // Calculate vector U as the difference between the sphere's center and the ray's starting point
-        double tm = V.dotProduct(U); // Calculate tm as the dot product between V (ray's direction vector) and U
-        double d = Math.sqrt(U.lengthSquared() - tm * tm); // Calculate d as the square root of the squared length of U minus tm squared
+        double tm = V.getX() * ux + V.getY() * uy + V.getZ() * uz; // Calculate tm as the dot product between V (ray's direction vector) and U
+        double d = Math.sqrt(ux * ux + uy * uy + uz * uz - tm * tm); // Calculate d as the square root of the squared length of U minus tm squared
         if (d >= this.radius) { // If d is greater than or equal to the sphere's radius, there are no intersections
-            return null;
+            return true;
         }
 
         double th = Math.sqrt(this.radius * this.radius - d * d); // Calculate th as the square root of the squared radius minus d squared
         double t1 = tm - th; // Calculate t1 as tm minus th
         double t2 = tm + th; // Calculate t2 as tm plus th
 
-        if (t1 > 0 && t2 > 0) { // If both t1 and t2 are greater than zero, two intersection points are found
-            Point p1 = ray.getPoint(t1); // Calculate intersection point p1 on the ray using t1
-            Point p2 = ray.getPoint(t2); // Calculate intersection point p2 on the ray using t2
-            return List.of(new GeoPoint(this, p1), new GeoPoint(this, p2)); // Return a list of both intersection points
-        }
-
-        if (t1 > 0) { // If only t1 is greater than zero, one intersection point is found
-            Point p1 = ray.getPoint(t1); // Calculate intersection point p1 on the ray using t1
-            return List.of(new GeoPoint(this, p1)); // Return a list with the intersection point p1
+        if (t1 > 0 && !collector.offer(this, t1)) { // t1 is the nearer intersection point, offered first
+            return false;
         }
 
-        if (t2 > 0) { // If only t2 is greater than zero, one intersection point is found
-            Point p2 = ray.getPoint(t2); // Calculate intersection point p2 on the ray using t2
-            return List.of(new GeoPoint(this, p2)); // Return a list with the intersection point p2
+        if (t2 > 0) { // If t2 is greater than zero, the farther intersection point is found
+            return collector.offer(this, t2);
         }
 
-        return null; // If none of the conditions above are met, there are no valid intersection points, so return null
+        return true; // If none of the conditions above are met, there are no more intersection points
     }
 
 
@@ -0,0 +1,351 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.List;
+
+import static primitives.Util.alignZero;
+
+/**
+ * A set of spheres kept as structure of arrays: the centers are three doubles per sphere, the squared radii one
+ * double, and every sphere may point at a material of a shared palette. The spheres are arranged in a
+ * {@link PrimitiveBvh} and stored in the order of its leaves, so every leaf is tested as one contiguous run
+ * of the arrays. A million spheres take tens of megabytes instead of hundreds.
+ * Every hit reports the position of the sphere that was hit, and a light geometry standing for the sphere is
+ * created only for the hits that are kept.
+ */
+public class SphereSet extends Intersectable implements GeometryParts {
+    /**
+     * maximal number of spheres in a leaf of the hierarchy
+     */
+    private static final int MAX_SPHERES_IN_LEAF = 4;
+
+    /**
+     * the scratch of every thread for the intersections of a run of spheres, {@value #MAX_SPHERES_IN_LEAF} numbers
+     * for each of r^2 - (L*L - tm^2), the nearer and the farther ray parameters. The hits of a run are offered
+     * before the next run is intersected, and the collectors do not trace rays, so a thread needs a single scratch.
+     */
+    private static final ThreadLocal<double[]> SCRATCH =
+            ThreadLocal.withInitial(() -> new double[3 * MAX_SPHERES_IN_LEAF]);
+
+    /**
+     * the centers of the spheres in the order of the leaves, three numbers per sphere
+     */
+    private final double[] centers;
+
+    /**
+     * the squared radii of the spheres in the order of the leaves
+     */
+    private final double[] radiiSquared;
+
+    /**
+     * the hierarchy of the spheres
+     */
+    private final PrimitiveBvh bvh;
+
+    /**
+     * the emission of the spheres without a material of the palette
+     */
+    private Color emission = Color.BLACK;
+
+    /**
+     * the material of the spheres without a material of the palette
+     */
+    private Material material = new Material();
+
+    /**
+     * the index of the material of every sphere in the order of the leaves,
+     * or null if all the spheres have the emission and the material of the set
+     */
+    private int[] materialIndices = null;
+
+    /**
+     * the palette of the emissions of the spheres
+     */
+    private Color[] emissions = null;
+
+    /**
+     * the palette of the materials of the spheres
+     */
+    private Material[] materials = null;
+
+    /**
+     * Constructs a set of spheres. All the spheres have the emission and the material of the set
+     * until {@link #setMaterials(int[], Color[], Material[])} is called.
+     *
+     * @param centers the centers of the spheres, three coordinates per sphere
+     * @param radii   the radii of the spheres
+     * @throws IllegalArgumentException if there are no spheres, the arrays do not match
+     *                                  or a radius is not positive
+     */
+    public SphereSet(double[] centers, double[] radii) {
+        if (radii.length == 0)
+            throw new IllegalArgumentException("A set must have at least one sphere");
+        if (centers.length != 3 * radii.length)
+            throw new IllegalArgumentException("Every sphere must have a center and a radius");
+        int count = radii.length;
+        double[] sphereBounds = new double[6 * count];
+        for (int i = 0; i < count; ++i) {
+            if (alignZero(radii[i]) <= 0)
+                throw new IllegalArgumentException("The radius of a sphere must be positive");
+            for (int axis = 0; axis < 3; ++axis) {
+                sphereBounds[6 * i + axis] = centers[3 * i + axis] - radii[i];
+                sphereBounds[6 * i + axis + 3] = centers[3 * i + axis] + radii[i];
+            }
+        }
+        bvh = new PrimitiveBvh(sphereBounds, MAX_SPHERES_IN_LEAF);
+
+        // store the spheres in the order of the leaves
+        this.centers = new double[3 * count];
+        radiiSquared = new double[count];
+        for (int i = 0; i < count; ++i) {
+            int sphere = bvh.order[i];
+            this.centers[3 * i] = centers[3 * sphere];
+            this.centers[3 * i + 1] = centers[3 * sphere + 1];
+            this.centers[3 * i + 2] = centers[3 * sphere + 2];
+            radiiSquared[i] = radii[sphere] * radii[sphere];
+        }
+        createBoundingBox();
+    }
+
+    /**
+     * setter, builder pattern - gives every sphere an emission and a material from shared palettes
+     *
+     * @param materialIndices the index in the palettes for every sphere, in the order the spheres were given
+     * @param emissions       the palette of emissions
+     * @param materials       the palette of materials, matching the emissions
+     * @return this
+     * @throws IllegalArgumentException if the arrays do not match the spheres or an index is out of the palettes
+     */
+    public SphereSet setMaterials(int[] materialIndices, Color[] emissions, Material[] materials) {
+        if (materialIndices.length != radiiSquared.length)
+            throw new IllegalArgumentException("Every sphere must have a material index");
+        if (emissions.length != materials.length)
+            throw new IllegalArgumentException("The palettes of emissions and materials must match");
+        int[] ordered = new int[materialIndices.length];
+        for (int i = 0; i < ordered.length; ++i) {
+            ordered[i] = materialIndices[bvh.order[i]];
+            if (ordered[i] < 0 || ordered[i] >= materials.length)
+                throw new IllegalArgumentException("A material index is out of the palette");
+        }
+        this.materialIndices = ordered;
+        this.emissions = emissions;
+        this.materials = materials;
+        return this;
+    }
+
+    /**
+     * getter for the emission of the spheres without a material of the palette
+     *
+     * @return the emission
+     */
+    public Color getEmission() {
+        return emission;
+    }
+
+    /**
+     * setter, builder pattern
+     *
+     * @param emission the emission of the spheres without a material of the palette
+     * @return this
+     */
+    public SphereSet setEmission(Color emission) {
+        this.emission = emission;
+        return this;
+    }
+
+    /**
+     * getter for the material of the spheres without a material of the palette
+     *
+     * @return the material
+     */
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * setter, builder pattern
+     *
+     * @param material the material of the spheres without a material of the palette
+     * @return this
+     */
+    public SphereSet setMaterial(Material material) {
+        this.material = material;
+        return this;
+    }
+
+    @Override
+    public Geometry getPart(int i) {
+        return new SetSphere(i);
+    }
+
+    @Override
+    public Material getMaterial(int i) {
+        return materialIndices == null ? material : materials[materialIndices[i]];
+    }
+
+    /**
+     * getter for the number of spheres
+     *
+     * @return number of spheres
+     */
+    public int getSpheresCount() {
+        return radiiSquared.length;
+    }
+
+    /**
+     * create boundary box for object - the box of the root of the hierarchy
+     */
+    @Override
+    public void createBoundingBox() {
+        if (bvh == null)
+            return;
+        _box = new BoundingBox(bvh.minimums(), bvh.maximums());
+    }
+
+    /**
+     * intersects a ray with a run of spheres and keeps the results in the scratch, to be checked by
+     * {@link #nearer(int, double[])} and {@link #farther(int, double[])}: with L the vector from the ray head to the
+     * center and tm its projection on the ray, the hits are at tm -+ sqrt(r^2 - (L*L - tm^2)). The loop is only
+     * arithmetic over the contiguous arrays, without calls or branches, so the JIT is free to unroll and vectorize it.
+     *
+     * @param first   position of the first sphere of the run in the arrays
+     * @param count   number of spheres in the run, at most {@value #MAX_SPHERES_IN_LEAF}
+     * @param ox      x of the ray head
+     * @param oy      y of the ray head
+     * @param oz      z of the ray head
+     * @param dx      x of the ray direction
+     * @param dy      y of the ray direction
+     * @param dz      z of the ray direction
+     * @param scratch receives r^2 - (L*L - tm^2), the nearer and the farther ray parameters of every sphere
+     */
+    private void intersect(int first, int count, double ox, double oy, double oz, double dx, double dy, double dz,
+                           double[] scratch) {
+        for (int k = 0; k < count; ++k) {
+            int i = first + k;
+            double lx = centers[3 * i] - ox, ly = centers[3 * i + 1] - oy, lz = centers[3 * i + 2] - oz;
+            double tm = lx * dx + ly * dy + lz * dz;
+            double h = radiiSquared[i] - (lx * lx + ly * ly + lz * lz - tm * tm);
+            double th = Math.sqrt(h);
+            scratch[k] = h;
+            scratch[MAX_SPHERES_IN_LEAF + k] = tm - th;
+            scratch[2 * MAX_SPHERES_IN_LEAF + k] = tm + th;
+        }
+    }
+
+    /**
+     * the nearer hit in front of the ray head of a sphere intersected by
+     * {@link #intersect(int, int, double, double, double, double, double, double, double[])}.
+     * Rays touching the sphere do not intersect it.
+     *
+     * @param k       position of the sphere in the run
+     * @param scratch the results of the run
+     * @return the distance of the hit, or Double.POSITIVE_INFINITY if there is none
+     */
+    private static double nearer(int k, double[] scratch) {
+        if (alignZero(scratch[k]) <= 0)
+            return Double.POSITIVE_INFINITY;
+        double t1 = alignZero(scratch[MAX_SPHERES_IN_LEAF + k]);
+        double t2 = alignZero(scratch[2 * MAX_SPHERES_IN_LEAF + k]);
+        return t1 > 0 ? t1 : t2 > 0 ? t2 : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * the farther hit of a sphere intersected by
+     * {@link #intersect(int, int, double, double, double, double, double, double, double[])}, if the ray head is
+     * out of the sphere
+     *
+     * @param k       position of the sphere in the run
+     * @param scratch the results of the run
+     * @return the distance of the hit, or Double.POSITIVE_INFINITY if there is none
+     */
+    private static double farther(int k, double[] scratch) {
+        return alignZero(scratch[MAX_SPHERES_IN_LEAF + k]) > 0
+                ? alignZero(scratch[2 * MAX_SPHERES_IN_LEAF + k]) : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        return collectHits(ray);
+    }
+
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double[] scratch = SCRATCH.get();
+        PrimitiveBvh.Visitor visitor = (first, count) -> {
+            // intersect the whole run first, then offer its hits
+            intersect(first, count, ox, oy, oz, dx, dy, dz, scratch);
+            for (int k = 0; k < count; ++k) {
+                // the farther hit is never nearer than the nearer one, so both are out of range if the nearer one is
+                double t = nearer(k, scratch);
+                if (!collector.accepts(t))
+                    continue;
+                if (!collector.offer(this, first + k, t) || !collector.offer(this, first + k, farther(k, scratch)))
+                    return false;
+            }
+            return true;
+        };
+        if (_bvhIsOn)
+            return bvh.traverse(ray, collector, visitor);
+        for (int first = 0; first < radiiSquared.length; first += MAX_SPHERES_IN_LEAF)
+            if (!visitor.visit(first, Math.min(MAX_SPHERES_IN_LEAF, radiiSquared.length - first)))
+                return false;
+        return true;
+    }
+
+    /**
+     * A sphere of the set reported in a hit - it has the emission and the material of the sphere
+     * and the normal of the sphere
+     */
+    private class SetSphere extends Geometry {
+        /**
+         * position of the sphere in the arrays
+         */
+        private final int index;
+
+        /**
+         * @param index position of the sphere in the arrays
+         */
+        SetSphere(int index) {
+            super(null);
+            this.index = index;
+        }
+
+        @Override
+        public Color getEmission() {
+            return materialIndices == null ? emission : emissions[materialIndices[index]];
+        }
+
+        @Override
+        public Material getMaterial() {
+            return SphereSet.this.getMaterial(index);
+        }
+
+        @Override
+        public Vector getNormal(Point point) {
+            return new Vector(point.getX() - centers[3 * index], point.getY() - centers[3 * index + 1],
+                    point.getZ() - centers[3 * index + 2]).normalize();
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            Point p0 = ray.getP0();
+            Vector dir = ray.getDir();
+            double[] scratch = SCRATCH.get();
+            intersect(index, 1, p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ(), scratch);
+            double t = nearer(0, scratch);
+            return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+        }
+
+        /**
+         * create boundary box for object - the sphere is only reported in hits of the set, so it has no box
+         */
+        @Override
+        public void createBoundingBox() {
+        }
+    }
+}
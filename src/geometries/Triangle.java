@@ -12,6 +12,12 @@ import static primitives.Util.*;
  */
 public class Triangle extends Polygon {
 
+    /**
+     * the first vertex and the two edges leaving it, kept as numbers for the intersection test
+     */
+    private final double ax, ay, az;
+    private final double e1x, e1y, e1z;
+    private final double e2x, e2y, e2z;
 
     /**
      * Constructs a new triangle with the given vertices.
@@ -21,9 +27,17 @@ public class Triangle extends Polygon {
      * @param pC The third vertex of the triangle.
      */
     public Triangle(Point pA, Point pB, Point pC) {
-        super(pA, pB, pC);
-        if (_bvhIsOn)
-            createBoundingBox();
+        // the Möller–Trumbore test needs only the plane of the polygon, not the normals of its edges
+        super(new Point[]{pA, pB, pC}, false);
+        ax = pA.getX();
+        ay = pA.getY();
+        az = pA.getZ();
+        e1x = pB.getX() - ax;
+        e1y = pB.getY() - ay;
+        e1z = pB.getZ() - az;
+        e2x = pC.getX() - ax;
+        e2y = pC.getY() - ay;
+        e2z = pC.getZ() - az;
     }
 
 
@@ -32,6 +46,63 @@ public class Triangle extends Polygon {
         return "Triangle{" + "p0=" + this.vertices.get(0) + ", p1=" + this.vertices.get(1) + ", p2=" + this.vertices.get(2) + '}';
     }
 
+    /**
+     * The Möller–Trumbore test: solves for the barycentric coordinates of the hit and its distance along the ray
+     * at once, with no objects created. Hits on the edges and the vertices of the triangle are not counted.
+     *
+     * @param ax  x of the first vertex
+     * @param ay  y of the first vertex
+     * @param az  z of the first vertex
+     * @param e1x x of the edge from the first vertex to the second
+     * @param e1y y of the edge from the first vertex to the second
+     * @param e1z z of the edge from the first vertex to the second
+     * @param e2x x of the edge from the first vertex to the third
+     * @param e2y y of the edge from the first vertex to the third
+     * @param e2z z of the edge from the first vertex to the third
+     * @param ox  x of the ray head
+     * @param oy  y of the ray head
+     * @param oz  z of the ray head
+     * @param dx  x of the ray direction
+     * @param dy  y of the ray direction
+     * @param dz  z of the ray direction
+     * @return the ray parameter of the hit, or Double.POSITIVE_INFINITY if the ray misses the triangle
+     */
+    static double intersect(double ax, double ay, double az, double e1x, double e1y, double e1z,
+                            double e2x, double e2y, double e2z,
+                            double ox, double oy, double oz, double dx, double dy, double dz) {
+        // p = dir x e2
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        // the ray is parallel to the plane of the triangle
+        if (isZero(det))
+            return Double.POSITIVE_INFINITY;
+        double inverse = 1 / det;
+        double sx = ox - ax, sy = oy - ay, sz = oz - az;
+        double u = (sx * px + sy * py + sz * pz) * inverse;
+        if (alignZero(u) <= 0)
+            return Double.POSITIVE_INFINITY;
+        // q = s x e1
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inverse;
+        if (alignZero(v) <= 0 || alignZero(u + v - 1) >= 0)
+            return Double.POSITIVE_INFINITY;
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inverse);
+        return t > 0 ? t : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds the distance of the intersection of the ray with the triangle.
+     * The direction of a ray is normalized, so the ray parameter is the distance.
+     *
+     * @param ray The ray to calculate the intersection with.
+     * @return the distance of the intersection, or Double.POSITIVE_INFINITY if there is none
+     */
+    private double intersectionDistance(Ray ray) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        return intersect(ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z,
+                p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ());
+    }
 
     /**
      * Returns a list of intersection points between the current triangle and the given ray.
@@ -42,40 +113,12 @@ public class Triangle extends Polygon {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        double t = intersectionDistance(ray);
+        return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
 
-            // First, check if there is an intersection between the ray and the plane
-            List<GeoPoint> planeIntersections = this.plane.findGeoIntersections(ray);
-            //if there is no intersection between the ray and the plane - return null
-            if (planeIntersections == null) {
-                return null;
-            }
-
-            // Find the vectors from the beginning of the ray to each of the vertices of the triangle
-            Vector v1 = vertices.get(0).subtract(ray.getP0());
-            Vector v2 = vertices.get(1).subtract(ray.getP0());
-            Vector v3 = vertices.get(2).subtract(ray.getP0());
-
-            // Calculate the normal vectors of the triangle edges
-            Vector n1 = v1.crossProduct(v2).normalize();
-            Vector n2 = v2.crossProduct(v3).normalize();
-            Vector n3 = v3.crossProduct(v1).normalize();
-
-            // Calculate the dot product between the ray direction vector and each of the triangle edge normal vectors
-            double s1 = alignZero(ray.getDir().dotProduct(n1));
-            double s2 = alignZero(ray.getDir().dotProduct(n2));
-            double s3 = alignZero(ray.getDir().dotProduct(n3));
-
-            // If any of the dot products is zero, there is no intersection
-            if (isZero(s1) || isZero(s2) || isZero(s3)) {
-                return null;
-            }
-
-            // If all dot products have the same sign, there is no intersection
-            if (s1 * s2 > 0 && s2 * s3 > 0) {
-                return List.of(new GeoPoint(this,planeIntersections.get(0).point));
-            }
-
-            return null;
-        }
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        return collector.offer(this, intersectionDistance(ray));
+    }
 }
-
@@ -0,0 +1,249 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.List;
+
+/**
+ * A mesh of triangles sharing one material, kept in flat arrays: the positions of the vertices are three doubles
+ * each, and every face is three indices of its vertices. The faces are arranged in a {@link PrimitiveBvh} of
+ * their own, also kept in flat arrays, so a mesh of millions of triangles takes tens of bytes per face.
+ * Every hit reports the index of the face that was hit, and a light geometry standing for the face is created
+ * only for the hits that are kept.
+ */
+public class TriangleMesh extends Intersectable implements GeometryParts {
+    /**
+     * maximal number of faces in a leaf of the hierarchy
+     */
+    private static final int MAX_FACES_IN_LEAF = 4;
+
+    /**
+     * the positions of the vertices, three numbers per vertex
+     */
+    private final double[] positions;
+
+    /**
+     * the faces, three vertex indices per face
+     */
+    private final int[] indices;
+
+    /**
+     * the hierarchy of the faces
+     */
+    private final PrimitiveBvh bvh;
+
+    /**
+     * the emission of the faces
+     */
+    private Color emission = Color.BLACK;
+
+    /**
+     * the material of the faces
+     */
+    private Material material = new Material();
+
+    /**
+     * Constructs a mesh. The arrays are kept as they are, not copied.
+     *
+     * @param positions the positions of the vertices, three coordinates per vertex
+     * @param indices   the faces, three vertex indices per face
+     * @throws IllegalArgumentException if the arrays are not made of triples, there are no faces
+     *                                  or a face refers to a missing vertex
+     */
+    public TriangleMesh(double[] positions, int[] indices) {
+        if (positions.length % 3 != 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("Positions and indices must come in triples");
+        if (indices.length == 0)
+            throw new IllegalArgumentException("A mesh must have at least one face");
+        int vertices = positions.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertices)
+                throw new IllegalArgumentException("A face refers to a missing vertex");
+        this.positions = positions;
+        this.indices = indices;
+
+        int count = indices.length / 3;
+        double[] faceBounds = new double[6 * count];
+        for (int face = 0; face < count; ++face)
+            for (int axis = 0; axis < 3; ++axis) {
+                double a = positions[3 * indices[3 * face] + axis];
+                double b = positions[3 * indices[3 * face + 1] + axis];
+                double c = positions[3 * indices[3 * face + 2] + axis];
+                faceBounds[6 * face + axis] = Math.min(a, Math.min(b, c));
+                faceBounds[6 * face + axis + 3] = Math.max(a, Math.max(b, c));
+            }
+        bvh = new PrimitiveBvh(faceBounds, MAX_FACES_IN_LEAF);
+        createBoundingBox();
+    }
+
+    /**
+     * getter for the number of faces
+     *
+     * @return number of faces
+     */
+    public int getFacesCount() {
+        return indices.length / 3;
+    }
+
+    /**
+     * getter for the emission of the faces
+     *
+     * @return the emission
+     */
+    public Color getEmission() {
+        return emission;
+    }
+
+    /**
+     * setter, builder pattern
+     *
+     * @param emission the emission of the faces
+     * @return this
+     */
+    public TriangleMesh setEmission(Color emission) {
+        this.emission = emission;
+        return this;
+    }
+
+    /**
+     * getter for the material of the faces
+     *
+     * @return the material
+     */
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * setter, builder pattern
+     *
+     * @param material the material of the faces
+     * @return this
+     */
+    public TriangleMesh setMaterial(Material material) {
+        this.material = material;
+        return this;
+    }
+
+    @Override
+    public Geometry getPart(int face) {
+        return new MeshTriangle(face);
+    }
+
+    @Override
+    public Material getMaterial(int face) {
+        return material;
+    }
+
+    /**
+     * create boundary box for object - the box of the root node
+     */
+    @Override
+    public void createBoundingBox() {
+        if (bvh == null)
+            return;
+        _box = new BoundingBox(bvh.minimums(), bvh.maximums());
+    }
+
+    /**
+     * intersects a ray with a face, see {@link Triangle#intersect}
+     *
+     * @param face index of the face
+     * @param ox   x of the ray head
+     * @param oy   y of the ray head
+     * @param oz   z of the ray head
+     * @param dx   x of the ray direction
+     * @param dy   y of the ray direction
+     * @param dz   z of the ray direction
+     * @return the distance of the hit along the ray, or Double.POSITIVE_INFINITY if the ray misses the face
+     */
+    private double intersect(int face, double ox, double oy, double oz, double dx, double dy, double dz) {
+        int a = 3 * indices[3 * face], b = 3 * indices[3 * face + 1], c = 3 * indices[3 * face + 2];
+        double ax = positions[a], ay = positions[a + 1], az = positions[a + 2];
+        return Triangle.intersect(ax, ay, az, positions[b] - ax, positions[b + 1] - ay, positions[b + 2] - az,
+                positions[c] - ax, positions[c + 1] - ay, positions[c + 2] - az, ox, oy, oz, dx, dy, dz);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        return collectHits(ray);
+    }
+
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        if (!_bvhIsOn) {
+            for (int face = 0; face < getFacesCount(); ++face) {
+                double t = intersect(face, ox, oy, oz, dx, dy, dz);
+                if (!collector.offer(this, face, t))
+                    return false;
+            }
+            return true;
+        }
+        return bvh.traverse(ray, collector, (first, count) -> {
+            for (int i = first; i < first + count; ++i) {
+                int face = bvh.order[i];
+                if (!collector.offer(this, face, intersect(face, ox, oy, oz, dx, dy, dz)))
+                    return false;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * A face of the mesh reported in a hit - it has the emission and the material of the mesh and the normal of
+     * the face
+     */
+    private class MeshTriangle extends Geometry {
+        /**
+         * index of the face
+         */
+        private final int face;
+
+        /**
+         * @param face index of the face
+         */
+        MeshTriangle(int face) {
+            super(null);
+            this.face = face;
+        }
+
+        @Override
+        public Color getEmission() {
+            return emission;
+        }
+
+        @Override
+        public Material getMaterial() {
+            return material;
+        }
+
+        @Override
+        public Vector getNormal(Point point) {
+            int a = 3 * indices[3 * face], b = 3 * indices[3 * face + 1], c = 3 * indices[3 * face + 2];
+            Vector e1 = new Vector(positions[b] - positions[a], positions[b + 1] - positions[a + 1],
+                    positions[b + 2] - positions[a + 2]);
+            Vector e2 = new Vector(positions[c] - positions[a], positions[c + 1] - positions[a + 1],
+                    positions[c + 2] - positions[a + 2]);
+            return e1.crossProduct(e2).normalize();
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            Point p0 = ray.getP0();
+            Vector dir = ray.getDir();
+            double t = intersect(face, p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ());
+            return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+        }
+
+        /**
+         * create boundary box for object - the face is only reported in hits of the mesh, so it has no box
+         */
+        @Override
+        public void createBoundingBox() {
+        }
+    }
+}
@@ -3,9 +3,11 @@ import primitives.Ray;
 import primitives.Vector;
 import primitives.Point;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
 /**
  This class represents a tube in 3D space, and it extends RadialGeometry.
  A tube is defined by its axisRay and its radius.
@@ -18,6 +20,13 @@ public class Tube extends RadialGeometry {
      */
     protected final Ray axisRay;
 
+    /**
+     * the head and the direction of the axis and the squared radius, kept as numbers for the intersection test
+     */
+    protected final double ax, ay, az;
+    protected final double vx, vy, vz;
+    protected final double radiusSquared;
+
     /**
      * Constructs a new tube with the given axisRay and radius.
      *
@@ -27,6 +36,15 @@ public class Tube extends RadialGeometry {
     public Tube(Ray axisRay, double radius) {
         super(radius);
         this.axisRay = axisRay;
+        Point p0 = axisRay.getP0();
+        Vector v = axisRay.getDir();
+        ax = p0.getX();
+        ay = p0.getY();
+        az = p0.getZ();
+        vx = v.getX();
+        vy = v.getY();
+        vz = v.getZ();
+        radiusSquared = radius * radius;
         if (_bvhIsOn)
             createBoundingBox();
     }
@@ -66,54 +84,54 @@ public class Tube extends RadialGeometry {
 
     }
 
+    /**
+     * Finds the first intersection of the ray with the surface after a given distance.
+     * The ray is intersected with the infinite side surface: with w the vector from the axis head to the ray
+     * head, the distance t solves (1 - (d*v)^2)t^2 + 2(d*w - (d*v)(w*v))t + w*w - (w*v)^2 - r^2 = 0.
+     * Rays along the axis and rays touching the surface do not intersect it.
+     *
+     * @param ray   the ray
+     * @param after the distance to look after - 0 for the first intersection
+     * @return the distance of the intersection, or Double.POSITIVE_INFINITY if there is none
+     */
+    protected double intersection(Ray ray, double after) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double wx = p0.getX() - ax, wy = p0.getY() - ay, wz = p0.getZ() - az;
+        double dv = dx * vx + dy * vy + dz * vz;
+        double wv = wx * vx + wy * vy + wz * vz;
+        double a = 1 - dv * dv;
+        if (isZero(a))
+            return Double.POSITIVE_INFINITY;
+        double halfB = dx * wx + dy * wy + dz * wz - dv * wv;
+        double c = wx * wx + wy * wy + wz * wz - wv * wv - radiusSquared;
+        double discriminant = alignZero(halfB * halfB - a * c);
+        if (discriminant <= 0)
+            return Double.POSITIVE_INFINITY;
+        double root = Math.sqrt(discriminant);
+        double t1 = (-halfB - root) / a;
+        if (alignZero(t1) > 0 && t1 > after)
+            return t1;
+        double t2 = (-halfB + root) / a;
+        return alignZero(t2) > 0 && t2 > after ? t2 : Double.POSITIVE_INFINITY;
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        List<GeoPoint> intersections = new ArrayList<GeoPoint>(); // List to store intersection points
-        Vector rayDirection = ray.getDir(); // Direction vector of the ray
-        Point rayOrigin = ray.getP0(); // Origin point of the ray
-        boolean condition = false; // Flag to handle intersection point ordering
-
-        // Calculate the coefficients of the quadratic equation to find the intersection points
-        Vector axisDirection = axisRay.getDir(); // Direction vector of the axis ray
-        Point axisOrigin = axisRay.getP0(); // Origin point of the axis ray
-        double a = rayDirection.dotProduct(rayDirection) - Math.pow(rayDirection.dotProduct(axisDirection), 2); // Coefficient 'a' calculation
-        double b = 2 * (rayDirection.dotProduct(rayOrigin.subtract(axisOrigin)) - rayDirection.dotProduct(axisDirection) * rayOrigin.subtract(axisOrigin).dotProduct(axisDirection)); // Coefficient 'b' calculation
-        double c = rayOrigin.subtract(axisOrigin).dotProduct(rayOrigin.subtract(axisOrigin)) - Math.pow(rayOrigin.subtract(axisOrigin).dotProduct(axisDirection), 2) - Math.pow(radius, 2); // Coefficient 'c' calculation
-
-        double discriminant = b * b - 4 * a * c; // Discriminant calculation for quadratic equation
-
-        if (discriminant < 0) { // No intersection if discriminant is negative
-            return intersections;
-        } else if (discriminant == 0) { // One intersection if discriminant is zero
-            double t = -b / (2 * a); // Calculate intersection parameter 't'
-            Point p = ray.getPoint(t); // Calculate intersection point
-            double tAxis = axisDirection.dotProduct(p.subtract(axisOrigin)); // Calculate parameter 't' along the axis ray
-            if (tAxis >= 0 && tAxis <= axisDirection.length()) { // Check if the intersection point lies within the bounds of the cylinder
-                intersections.add(0, new GeoPoint(this, p)); // Add the intersection point to the list
-            }
-        } else { // Two intersections if discriminant is positive
-            double t1 = (-b + Math.sqrt(discriminant)) / (2 * a); // Calculate intersection parameter 't' for the first point
-            double t2 = (-b - Math.sqrt(discriminant)) / (2 * a); // Calculate intersection parameter 't' for the second point
-            Point intersection1 = ray.getPoint(t1); // Calculate first intersection point
-            Point intersection2 = ray.getPoint(t2); // Calculate second intersection point
-            double tAxis1 = axisDirection.dotProduct(intersection1.subtract(axisOrigin)); // Calculate parameter 't' along the axis ray for the first point
-            double tAxis2 = axisDirection.dotProduct(intersection2.subtract(axisOrigin)); // Calculate parameter 't' along the axis ray for the second point
-
-            if (tAxis1 >= 0 && tAxis1 <= axisDirection.length()) { // Check if the first intersection point lies within the bounds of the cylinder
-                intersections.add(0, new GeoPoint(this, intersection1)); // Add the first intersection point to the list
-                condition = true; // Set the condition flag to true
-            }
-
-            if (tAxis2 >= 0 && tAxis2 <= axisDirection.length()) { // Check if the second intersection point lies within the bounds of the cylinder
-                if (condition == true)
-                    intersections.add(1, new GeoPoint(this, intersection2)); // Add the second intersection point to the list at index 1 if the condition is true
-                else
-                    intersections.add(0, new GeoPoint(this, intersection2)); // Add the second intersection point to the list at index 0 if the condition is false
-            }
-        }
-
-        return intersections; // Return the list of intersection points
+        double t1 = intersection(ray, 0);
+        if (t1 == Double.POSITIVE_INFINITY)
+            return null;
+        double t2 = intersection(ray, t1);
+        return t2 == Double.POSITIVE_INFINITY ? List.of(new GeoPoint(this, ray.getPoint(t1), t1))
+                : List.of(new GeoPoint(this, ray.getPoint(t1), t1), new GeoPoint(this, ray.getPoint(t2), t2));
     }
 
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        for (double t = intersection(ray, 0); collector.accepts(t); t = intersection(ray, t))
+            if (!collector.offer(this, t))
+                return false;
+        return true;
+    }
 }
-
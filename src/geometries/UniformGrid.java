@@ -0,0 +1,309 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid acceleration structure. The box of the geometries is divided into equal cells, every geometry
+ * is listed in all the cells its bounding box overlaps, and a ray walks the cells it passes through in order
+ * (3D-DDA), testing only the geometries listed in them.
+ * Suits dense scenes of small geometries spread evenly in space.
+ */
+class UniformGrid extends Intersectable {
+    /**
+     * the wanted average number of cells per geometry, for the automatic resolution
+     */
+    private static final double CELLS_PER_GEOMETRY = 3;
+
+    /**
+     * maximal number of cells along an axis for the automatic resolution
+     */
+    private static final int MAX_RESOLUTION = 128;
+
+    /**
+     * the geometries in the grid
+     */
+    final Intersectable[] geometries;
+
+    /**
+     * number of cells along each axis
+     */
+    private final int nX, nY, nZ;
+
+    /**
+     * the corner of the grid with the minimal coordinates
+     */
+    private final double minX, minY, minZ;
+
+    /**
+     * the size of a cell along each axis
+     */
+    private final double cellX, cellY, cellZ;
+
+    /**
+     * for each cell the index of its first entry in {@link #cellItems}, and one more entry at the end
+     */
+    private final int[] cellStart;
+
+    /**
+     * the indices of the geometries listed in the cells, cell after cell
+     */
+    private final int[] cellItems;
+
+    /**
+     * the mailbox of every rendering thread, kept between the rays of the thread
+     */
+    private final ThreadLocal<Mailbox> mailboxes = ThreadLocal.withInitial(Mailbox::new);
+
+    /**
+     * Marks the geometries tested by a ray: every ray of a thread gets a new number, and a geometry is stamped
+     * with the number of the ray that tested it, so nothing is cleared between the rays
+     */
+    private class Mailbox {
+        /**
+         * the number of the ray that tested every geometry last
+         */
+        private final int[] stamps = new int[geometries.length];
+
+        /**
+         * the number of the current ray of the thread
+         */
+        private int ray = 0;
+
+        /**
+         * starts a new ray
+         *
+         * @return the number of the ray
+         */
+        int nextRay() {
+            if (++ray == 0) {
+                // the numbers wrapped around, the stamps of the old rays could be mistaken for the new ones
+                Arrays.fill(stamps, 0);
+                ray = 1;
+            }
+            return ray;
+        }
+
+        /**
+         * stamps a geometry with the number of the ray
+         *
+         * @param index index of the geometry
+         * @param ray   the number of the ray
+         * @return false if the ray had already tested the geometry
+         */
+        boolean stamp(int index, int ray) {
+            if (stamps[index] == ray)
+                return false;
+            stamps[index] = ray;
+            return true;
+        }
+    }
+
+    /**
+     * Builds a grid with a resolution set from the number of geometries and the extent of their box
+     *
+     * @param geometries bounded geometries
+     */
+    UniformGrid(List<Intersectable> geometries) {
+        this(geometries, null);
+    }
+
+    /**
+     * Builds a grid with a given resolution
+     *
+     * @param geometries bounded geometries
+     * @param resolution number of cells along the x, y and z axes, or null for the automatic resolution
+     */
+    UniformGrid(List<Intersectable> geometries, int[] resolution) {
+        this.geometries = geometries.toArray(new Intersectable[0]);
+        double[] bounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (Intersectable geometry : this.geometries) {
+            BoundingBox box = geometry._box;
+            bounds[0] = Math.min(bounds[0], box._minimums.getX());
+            bounds[1] = Math.min(bounds[1], box._minimums.getY());
+            bounds[2] = Math.min(bounds[2], box._minimums.getZ());
+            bounds[3] = Math.max(bounds[3], box._maximums.getX());
+            bounds[4] = Math.max(bounds[4], box._maximums.getY());
+            bounds[5] = Math.max(bounds[5], box._maximums.getZ());
+        }
+        if (resolution == null)
+            resolution = autoResolution(this.geometries.length, bounds);
+        nX = resolution[0];
+        nY = resolution[1];
+        nZ = resolution[2];
+        minX = bounds[0];
+        minY = bounds[1];
+        minZ = bounds[2];
+        cellX = (bounds[3] - minX) / nX;
+        cellY = (bounds[4] - minY) / nY;
+        cellZ = (bounds[5] - minZ) / nZ;
+        _box = new BoundingBox(new Point(bounds[0], bounds[1], bounds[2]), new Point(bounds[3], bounds[4], bounds[5]));
+
+        // count the entries of every cell, then fill them
+        cellStart = new int[nX * nY * nZ + 1];
+        for (Intersectable geometry : this.geometries)
+            forEachCell(geometry._box, cell -> ++cellStart[cell + 1]);
+        for (int cell = 0; cell < nX * nY * nZ; ++cell)
+            cellStart[cell + 1] += cellStart[cell];
+        cellItems = new int[cellStart[nX * nY * nZ]];
+        int[] filled = new int[nX * nY * nZ];
+        for (int i = 0; i < this.geometries.length; ++i) {
+            int index = i;
+            forEachCell(this.geometries[i]._box, cell -> cellItems[cellStart[cell] + filled[cell]++] = index);
+        }
+    }
+
+    /**
+     * finds a resolution giving about {@link #CELLS_PER_GEOMETRY} cells per geometry,
+     * with cells as close to cubes as the extent allows
+     *
+     * @param count  number of geometries
+     * @param bounds bounds of the geometries {minX, minY, minZ, maxX, maxY, maxZ}
+     * @return number of cells along the x, y and z axes
+     */
+    static int[] autoResolution(int count, double[] bounds) {
+        int dimensions = 0;
+        double measure = 1;
+        for (int axis = 0; axis < 3; ++axis) {
+            double extent = bounds[axis + 3] - bounds[axis];
+            if (extent > 0) {
+                ++dimensions;
+                measure *= extent;
+            }
+        }
+        double cellsPerUnit = dimensions == 0 ? 0 : Math.pow(CELLS_PER_GEOMETRY * count / measure, 1d / dimensions);
+        int[] resolution = new int[3];
+        for (int axis = 0; axis < 3; ++axis) {
+            double extent = bounds[axis + 3] - bounds[axis];
+            resolution[axis] = (int) Math.max(1, Math.min(MAX_RESOLUTION, Math.ceil(extent * cellsPerUnit)));
+        }
+        return resolution;
+    }
+
+    /**
+     * a function called with a cell index
+     */
+    private interface CellConsumer {
+        /**
+         * @param cell index of the cell
+         */
+        void accept(int cell);
+    }
+
+    /**
+     * calls a function for every cell a box overlaps
+     *
+     * @param box      the box
+     * @param consumer the function
+     */
+    private void forEachCell(BoundingBox box, CellConsumer consumer) {
+        int x0 = cellIndex(box._minimums.getX(), minX, cellX, nX), x1 = cellIndex(box._maximums.getX(), minX, cellX, nX);
+        int y0 = cellIndex(box._minimums.getY(), minY, cellY, nY), y1 = cellIndex(box._maximums.getY(), minY, cellY, nY);
+        int z0 = cellIndex(box._minimums.getZ(), minZ, cellZ, nZ), z1 = cellIndex(box._maximums.getZ(), minZ, cellZ, nZ);
+        for (int z = z0; z <= z1; ++z)
+            for (int y = y0; y <= y1; ++y)
+                for (int x = x0; x <= x1; ++x)
+                    consumer.accept(x + nX * (y + nY * z));
+    }
+
+    /**
+     * @param coordinate coordinate along an axis
+     * @param min        the minimal coordinate of the grid along the axis
+     * @param cell       the size of a cell along the axis
+     * @param n          number of cells along the axis
+     * @return index of the cell containing the coordinate, clamped to the grid
+     */
+    private static int cellIndex(double coordinate, double min, double cell, int n) {
+        if (n == 1)
+            return 0;
+        return Math.max(0, Math.min(n - 1, (int) ((coordinate - min) / cell)));
+    }
+
+    /**
+     * create boundary box for object - the box of the grid is set when it is built
+     */
+    @Override
+    public void createBoundingBox() {
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        return collectHits(ray);
+    }
+
+    /**
+     * Pushes the hits into the collector walking the cells the ray passes through, in order, until the ray
+     * leaves the grid or passes the maximal distance of the collector. A hit found in a cell may lie in a later
+     * cell, so the walk goes on until the cell being visited ends beyond the maximal distance.
+     *
+     * @param ray       the ray to find intersections with
+     * @param collector receives the hits, and bounds the search with its maximal distance
+     * @return false if the collector stopped the search
+     */
+    @Override
+    protected boolean findHitsHelper(Ray ray, HitCollector collector) {
+        if (!_bvhIsOn) {
+            for (Intersectable geometry : geometries)
+                if (!geometry.findHits(ray, collector))
+                    return false;
+            return true;
+        }
+
+        double enter = _box.entryDistance(ray, collector.getMaxDistance());
+        if (enter == Double.POSITIVE_INFINITY)
+            return true;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        int x = cellIndex(ox + dx * enter, minX, cellX, nX);
+        int y = cellIndex(oy + dy * enter, minY, cellY, nY);
+        int z = cellIndex(oz + dz * enter, minZ, cellZ, nZ);
+
+        // distance to the next cell boundary along each axis and the distance between boundaries
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1, stepZ = dz > 0 ? 1 : -1;
+        double nextX = nX == 1 || dx == 0 ? Double.POSITIVE_INFINITY
+                : (minX + (dx > 0 ? x + 1 : x) * cellX - ox) / dx;
+        double nextY = nY == 1 || dy == 0 ? Double.POSITIVE_INFINITY
+                : (minY + (dy > 0 ? y + 1 : y) * cellY - oy) / dy;
+        double nextZ = nZ == 1 || dz == 0 ? Double.POSITIVE_INFINITY
+                : (minZ + (dz > 0 ? z + 1 : z) * cellZ - oz) / dz;
+        double deltaX = Math.abs(cellX / dx), deltaY = Math.abs(cellY / dy), deltaZ = Math.abs(cellZ / dz);
+
+        // a geometry may be listed in several cells, so it is tested once
+        Mailbox mailbox = mailboxes.get();
+        int rayNumber = mailbox.nextRay();
+        while (true) {
+            int cell = x + nX * (y + nY * z);
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; ++i) {
+                int index = cellItems[i];
+                if (mailbox.stamp(index, rayNumber) && !geometries[index].findHitsHelper(ray, collector))
+                    return false;
+            }
+            if (Math.min(nextX, Math.min(nextY, nextZ)) >= collector.getMaxDistance())
+                return true;
+            if (nextX <= nextY && nextX <= nextZ) {
+                x += stepX;
+                if (x < 0 || x >= nX)
+                    return true;
+                nextX += deltaX;
+            } else if (nextY <= nextZ) {
+                y += stepY;
+                if (y < 0 || y >= nY)
+                    return true;
+                nextY += deltaY;
+            } else {
+                z += stepZ;
+                if (z < 0 || z >= nZ)
+                    return true;
+                nextZ += deltaZ;
+            }
+        }
+    }
+}
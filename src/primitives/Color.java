@@ -46,11 +46,39 @@ public class Color {
    /** Color getter - returns the color after converting it into java.awt.Color
     * object During the conversion any component bigger than 255 is set to 255
     * @return java.awt.Color object based on this Color RGB components */
-   public java.awt.Color getColor() {
-      int ir = (int) rgb.d1;
-      int ig = (int) rgb.d2;
-      int ib = (int) rgb.d3;
-      return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
+   public java.awt.Color getColor() { return new java.awt.Color(getRGB(1)); }
+
+   /** Red component getter
+    * @return the red component, from 0 to whatever */
+   public double getRed() { return rgb.d1; }
+
+   /** Green component getter
+    * @return the green component, from 0 to whatever */
+   public double getGreen() { return rgb.d2; }
+
+   /** Blue component getter
+    * @return the blue component, from 0 to whatever */
+   public double getBlue() { return rgb.d3; }
+
+   /** Packs the color into an 0xRRGGBB int, as {@link java.awt.Color#getRGB()} does without the alpha, but
+    * without creating a java.awt.Color object. Every component is gamma corrected on the 0..255 scale and any
+    * component bigger than 255 is set to 255 and any negative component to 0, so it does not spill into the
+    * neighbouring components
+    * @param  gamma the gamma to correct the components by, 1 for no correction
+    * @return       the packed RGB components */
+   public int getRGB(double gamma) {
+      return pack(rgb.d1, gamma) << 16 | pack(rgb.d2, gamma) << 8 | pack(rgb.d3, gamma);
+   }
+
+   /** Clamps and gamma corrects a single component
+    * @param  component the component
+    * @param  gamma     the gamma to correct the component by, 1 for no correction
+    * @return           the component in range 0..255 */
+   private static int pack(double component, double gamma) {
+      if (component >= 255) return 255;
+      if (!(component > 0)) return 0;
+      if (gamma != 1) component = 255 * Math.pow(component / 255, 1 / gamma);
+      return (int) component;
    }
 
    /** Operation of adding this and one or more other colors (by component)
@@ -1,6 +1,6 @@
 package primitives;
 
-import java.util.Objects;
+import static primitives.Util.isZero;
 
 /**
  Represents a point in three-dimensional space using Cartesian coordinates.
@@ -14,8 +14,15 @@ public class Point {
 
     public static final Point ZERO = new Point(0,0,0);
     /**
-     * The coordinates of the point in three-dimensional space */
-    final Double3 xyz;
+     * The x coordinate of the point - the coordinates are kept in the point itself rather than in a Double3,
+     * so a point is one object and reading a coordinate is a single load */
+    final double x;
+    /**
+     * The y coordinate of the point */
+    final double y;
+    /**
+     * The z coordinate of the point */
+    final double z;
 
     /**
      * Constructs a point with the specified coordinates.
@@ -25,7 +32,9 @@ public class Point {
      * @param z the z-coordinate of the point
      */
     public Point(double x, double y, double z) {
-       xyz=new Double3(x,y,z);
+        this.x = x;
+        this.y = y;
+        this.z = z;
     }
 
     /**
@@ -41,17 +50,17 @@ public class Point {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Point point)) return false;
-        return this.xyz.equals(point.xyz);
+        return isZero(this.x - point.x) && isZero(this.y - point.y) && isZero(this.z - point.z);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.xyz);
+        return (int) Math.round(this.x + this.y + this.z);
     }
 
     @Override
     public String toString() {
-        return "Point:" + this.xyz;
+        return "Point:(" + this.x + "," + this.y + "," + this.z + ")";
     }
 
     /**
@@ -61,9 +70,9 @@ public class Point {
      * @return the square of the distance between this point and the other point
      */
     public double distanceSquared(Point other){
-        return(other.xyz.d1- xyz.d1)*(other.xyz.d1- xyz.d1)+
-                (other.xyz.d2- xyz.d2)*(other.xyz.d2- xyz.d2)+
-                (other.xyz.d3- xyz.d3)*(other.xyz.d3- xyz.d3);
+        return(other.x- this.x)*(other.x- this.x)+
+                (other.y- this.y)*(other.y- this.y)+
+                (other.z- this.z)*(other.z- this.z);
 
     }
 
@@ -84,7 +93,7 @@ public class Point {
      * @return a new point that is the result of adding the vector to this point
      */
     public Point add(Vector vector) {
-        return new Point(xyz.add(vector.xyz));
+        return new Point(this.x + vector.x, this.y + vector.y, this.z + vector.z);
     }
 
 
@@ -95,13 +104,8 @@ public class Point {
      * @return a new vector that is the result of subtracting the other point from this point
      */
     public Vector subtract(Point point) {
-
-        Double3 result = this.xyz.subtract(point.xyz);
-
-        if (result.equals(Double3.ZERO)) {
-            throw new IllegalArgumentException("ZERO vector not allowed");
-        }
-        return new Vector(result);
+        // the vector constructor rejects the zero vector
+        return new Vector(this.x - point.x, this.y - point.y, this.z - point.z);
     }
 
     /**
@@ -109,7 +113,7 @@ public class Point {
      * @return x coordinate value
      */
     public double getX() {
-        return xyz.d1;
+        return this.x;
     }
 
     /**
@@ -117,7 +121,7 @@ public class Point {
      * @return y coordinate value
      */
     public double getY() {
-        return xyz.d2;
+        return this.y;
     }
 
     /**
@@ -125,6 +129,6 @@ public class Point {
      * @return z coordinate value
      */
     public double getZ() {
-        return xyz.d3;
+        return this.z;
     }
 }
@@ -47,9 +47,8 @@ public class Ray {
      * @return The point on the ray at distance t.
      */
     public Point getPoint(double t) {
-        Vector tv = dir.scale(t); // Multiply the distance with the direction vector
-        Point p = p0.add(tv); // Add the vector to the starting point to get the desired point
-        return p;
+        // p0 + t * dir, without the intermediate vector
+        return new Point(p0.getX() + t * dir.getX(), p0.getY() + t * dir.getY(), p0.getZ() + t * dir.getZ());
     }
 
     /**
@@ -73,7 +72,7 @@ public class Ray {
      */
     public Ray(Point p0, Vector dir, Vector n) {
         double delta = dir.dotProduct(n) >= 0 ? DELTA : -DELTA;
-        this.p0 = p0.add(n.scale(delta));
+        this.p0 = new ScratchVector().set(p0).addScaled(n, delta).toPoint();
         this.dir = dir;
     }
 
@@ -127,7 +126,7 @@ public class Ray {
         if (!geoPointList.isEmpty()) {
             // Iterate over the geoPointList to find the closest point
             for (var geoPoint : geoPointList) {
-                geoPointDistance = this.p0.distance(geoPoint.point); // Calculate the distance between this.p0 and the current point
+                geoPointDistance = geoPoint.getDistance(this); // The distance given by the intersection, or found from this.p0
                 if (geoPointDistance < minDistance) {
                     minDistance = geoPointDistance; // Update the minimum distance
                     closestPoint = geoPoint; // Update the closestPoint
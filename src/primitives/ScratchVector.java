@@ -0,0 +1,183 @@
+package primitives;
+
+/**
+ * A mutable triad of coordinates for the hot paths of rendering.
+ * Every operation changes the scratch vector in place and returns it, so a chain of vector math
+ * allocates nothing until the result is turned into an immutable {@link Point} or {@link Vector}.
+ * A scratch vector is meant to be a local variable or to belong to one thread - it is not thread safe.
+ * Unlike {@link Vector}, it may be the zero vector.
+ */
+public final class ScratchVector {
+    /**
+     * x coordinate
+     */
+    private double x;
+
+    /**
+     * y coordinate
+     */
+    private double y;
+
+    /**
+     * z coordinate
+     */
+    private double z;
+
+    /**
+     * sets the coordinates
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return this
+     */
+    public ScratchVector set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /**
+     * sets the coordinates to those of a point or a vector
+     *
+     * @param point the point
+     * @return this
+     */
+    public ScratchVector set(Point point) {
+        return set(point.getX(), point.getY(), point.getZ());
+    }
+
+    /**
+     * sets the vector to the difference of two points
+     *
+     * @param head the head of the vector
+     * @param tail the tail of the vector
+     * @return this, head - tail
+     */
+    public ScratchVector setDifference(Point head, Point tail) {
+        return set(head.getX() - tail.getX(), head.getY() - tail.getY(), head.getZ() - tail.getZ());
+    }
+
+    /**
+     * adds a scaled vector
+     *
+     * @param vector the vector to add
+     * @param scale  the scale of the vector
+     * @return this, this + scale * vector
+     */
+    public ScratchVector addScaled(Vector vector, double scale) {
+        x += vector.getX() * scale;
+        y += vector.getY() * scale;
+        z += vector.getZ() * scale;
+        return this;
+    }
+
+    /**
+     * adds another scratch vector
+     *
+     * @param other the vector to add
+     * @return this, this + other
+     */
+    public ScratchVector add(ScratchVector other) {
+        x += other.x;
+        y += other.y;
+        z += other.z;
+        return this;
+    }
+
+    /**
+     * scales the vector
+     *
+     * @param scale the scale
+     * @return this, scale * this
+     */
+    public ScratchVector scale(double scale) {
+        x *= scale;
+        y *= scale;
+        z *= scale;
+        return this;
+    }
+
+    /**
+     * @param vector a vector
+     * @return the dot product of this vector and the vector
+     */
+    public double dotProduct(Vector vector) {
+        return x * vector.getX() + y * vector.getY() + z * vector.getZ();
+    }
+
+    /**
+     * @return the square of the length of the vector
+     */
+    public double lengthSquared() {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * @return the length of the vector
+     */
+    public double length() {
+        return Math.sqrt(lengthSquared());
+    }
+
+    /**
+     * scales the vector to length 1
+     *
+     * @return this
+     * @throws IllegalArgumentException if the vector is zero
+     */
+    public ScratchVector normalize() {
+        double length = length();
+        if (Util.isZero(length))
+            throw new IllegalArgumentException("Zero vector cannot be normalized");
+        return scale(1 / length);
+    }
+
+    /**
+     * Getter of X coordinate value
+     *
+     * @return x coordinate value
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Getter of Y coordinate value
+     *
+     * @return y coordinate value
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Getter of Z coordinate value
+     *
+     * @return z coordinate value
+     */
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * @return an immutable vector with the coordinates
+     * @throws IllegalArgumentException if the vector is zero
+     */
+    public Vector toVector() {
+        return new Vector(x, y, z);
+    }
+
+    /**
+     * @return an immutable point with the coordinates
+     */
+    public Point toPoint() {
+        return new Point(x, y, z);
+    }
+
+    @Override
+    public String toString() {
+        return "ScratchVector:(" + x + "," + y + "," + z + ")";
+    }
+}
@@ -0,0 +1,204 @@
+package primitives;
+
+/**
+ * Affine transformation of the space - a linear map followed by a translation.
+ * The matrix is kept together with its inverse, so points and vectors can be moved both ways.
+ * Transformations are immutable and combined with {@link #then(Transform)}.
+ */
+public class Transform {
+    /**
+     * the transformation that leaves every point in place
+     */
+    public static final Transform IDENTITY = new Transform(new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+    /**
+     * the matrix, three rows of four numbers - the linear part and the translation in the last column
+     */
+    private final double[] matrix;
+
+    /**
+     * the matrix of the inverse transformation, in the same layout
+     */
+    private final double[] inverse;
+
+    /**
+     * Constructs a transformation from its matrix
+     *
+     * @param matrix three rows of four numbers
+     * @throws IllegalArgumentException if the transformation is not invertible
+     */
+    private Transform(double[] matrix) {
+        this.matrix = matrix;
+        this.inverse = invert(matrix);
+    }
+
+    /**
+     * @param offset the translation vector
+     * @return transformation moving every point by the vector
+     */
+    public static Transform translation(Vector offset) {
+        return new Transform(new double[]{1, 0, 0, offset.getX(), 0, 1, 0, offset.getY(), 0, 0, 1, offset.getZ()});
+    }
+
+    /**
+     * @param factor the scale factor
+     * @return transformation scaling the space uniformly around the origin
+     */
+    public static Transform scaling(double factor) {
+        return scaling(factor, factor, factor);
+    }
+
+    /**
+     * @param x the scale factor along the x axis
+     * @param y the scale factor along the y axis
+     * @param z the scale factor along the z axis
+     * @return transformation scaling the space along the axes around the origin
+     * @throws IllegalArgumentException if one of the factors is zero
+     */
+    public static Transform scaling(double x, double y, double z) {
+        return new Transform(new double[]{x, 0, 0, 0, 0, y, 0, 0, 0, 0, z, 0});
+    }
+
+    /**
+     * @param axis  the rotation axis, through the origin
+     * @param angle the rotation angle (degrees)
+     * @return transformation rotating the space around the axis
+     */
+    public static Transform rotation(Vector axis, double angle) {
+        Vector k = axis.normalize();
+        double u = k.getX(), v = k.getY(), w = k.getZ();
+        angle = Math.toRadians(angle);
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        double c = 1 - cos;
+        return new Transform(new double[]{
+                cos + u * u * c, u * v * c - w * sin, u * w * c + v * sin, 0,
+                v * u * c + w * sin, cos + v * v * c, v * w * c - u * sin, 0,
+                w * u * c - v * sin, w * v * c + u * sin, cos + w * w * c, 0});
+    }
+
+    /**
+     * combines two transformations
+     *
+     * @param next the transformation applied after this one
+     * @return transformation applying this one and then the next one
+     */
+    public Transform then(Transform next) {
+        return new Transform(multiply(next.matrix, matrix));
+    }
+
+    /**
+     * @param a matrix
+     * @param b matrix
+     * @return the matrix of applying b and then a
+     */
+    private static double[] multiply(double[] a, double[] b) {
+        double[] result = new double[12];
+        for (int row = 0; row < 3; ++row) {
+            for (int column = 0; column < 4; ++column)
+                result[4 * row + column] = a[4 * row] * b[column] + a[4 * row + 1] * b[4 + column]
+                        + a[4 * row + 2] * b[8 + column];
+            result[4 * row + 3] += a[4 * row + 3];
+        }
+        return result;
+    }
+
+    /**
+     * @param m matrix
+     * @return the matrix of the inverse transformation
+     * @throws IllegalArgumentException if the matrix is singular
+     */
+    private static double[] invert(double[] m) {
+        // cofactors of the linear part
+        double c00 = m[5] * m[10] - m[6] * m[9];
+        double c01 = m[6] * m[8] - m[4] * m[10];
+        double c02 = m[4] * m[9] - m[5] * m[8];
+        double determinant = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (Util.isZero(determinant))
+            throw new IllegalArgumentException("The transformation is not invertible");
+        double d = 1 / determinant;
+        double[] r = new double[12];
+        r[0] = c00 * d;
+        r[1] = (m[2] * m[9] - m[1] * m[10]) * d;
+        r[2] = (m[1] * m[6] - m[2] * m[5]) * d;
+        r[4] = c01 * d;
+        r[5] = (m[0] * m[10] - m[2] * m[8]) * d;
+        r[6] = (m[2] * m[4] - m[0] * m[6]) * d;
+        r[8] = c02 * d;
+        r[9] = (m[1] * m[8] - m[0] * m[9]) * d;
+        r[10] = (m[0] * m[5] - m[1] * m[4]) * d;
+        // the inverse translation is minus the inverse linear part applied to the translation
+        for (int row = 0; row < 3; ++row)
+            r[4 * row + 3] = -(r[4 * row] * m[3] + r[4 * row + 1] * m[7] + r[4 * row + 2] * m[11]);
+        return r;
+    }
+
+    /**
+     * @param m matrix
+     * @param p point
+     * @return the point moved by the matrix
+     */
+    private static Point applyToPoint(double[] m, Point p) {
+        double x = p.getX(), y = p.getY(), z = p.getZ();
+        return new Point(m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]);
+    }
+
+    /**
+     * @param m matrix
+     * @param v vector
+     * @return the vector moved by the linear part of the matrix
+     */
+    private static Vector applyToVector(double[] m, Vector v) {
+        double x = v.getX(), y = v.getY(), z = v.getZ();
+        return new Vector(m[0] * x + m[1] * y + m[2] * z,
+                m[4] * x + m[5] * y + m[6] * z,
+                m[8] * x + m[9] * y + m[10] * z);
+    }
+
+    /**
+     * @param point a point
+     * @return the transformed point
+     */
+    public Point transformPoint(Point point) {
+        return applyToPoint(matrix, point);
+    }
+
+    /**
+     * @param vector a direction vector
+     * @return the transformed vector, not normalized
+     */
+    public Vector transformVector(Vector vector) {
+        return applyToVector(matrix, vector);
+    }
+
+    /**
+     * @param point a transformed point
+     * @return the point before the transformation
+     */
+    public Point inverseTransformPoint(Point point) {
+        return applyToPoint(inverse, point);
+    }
+
+    /**
+     * @param vector a transformed direction vector
+     * @return the vector before the transformation, not normalized
+     */
+    public Vector inverseTransformVector(Vector vector) {
+        return applyToVector(inverse, vector);
+    }
+
+    /**
+     * moves a normal with the inverse transpose of the linear part, so it stays orthogonal to the transformed surface
+     *
+     * @param normal a normal of a surface before the transformation
+     * @return the normalized normal of the transformed surface
+     */
+    public Vector transformNormal(Vector normal) {
+        double x = normal.getX(), y = normal.getY(), z = normal.getZ();
+        return new Vector(inverse[0] * x + inverse[4] * y + inverse[8] * z,
+                inverse[1] * x + inverse[5] * y + inverse[9] * z,
+                inverse[2] * x + inverse[6] * y + inverse[10] * z).normalize();
+    }
+}
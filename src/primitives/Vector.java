@@ -19,7 +19,7 @@ public class Vector extends Point {
      */
     public Vector(double x, double y,double z) {
         super(x,y,z);
-        if(xyz.equals(Double3.ZERO)){
+        if(isZero(x) && isZero(y) && isZero(z)){
             throw new IllegalArgumentException("Vector cannot be zero");
         }
     }
@@ -47,9 +47,9 @@ public class Vector extends Point {
      * @return The square of the length of the vector.
      */
     public double lengthSquared() {
-        double dx=xyz.d1;
-        double dy=xyz.d2;
-        double dz=xyz.d3;
+        double dx=this.x;
+        double dy=this.y;
+        double dz=this.z;
         return dx*dx+dy*dy+dz*dz;
     }
 
@@ -58,7 +58,7 @@ public class Vector extends Point {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Vector vector)) return false;
-        return xyz.equals(vector.xyz);
+        return isZero(this.x - vector.x) && isZero(this.y - vector.y) && isZero(this.z - vector.z);
     }
 
     /**
@@ -66,21 +66,17 @@ public class Vector extends Point {
      * @return The normalized vector.
      */
     public Vector normalize(){
-        double len=length();
-        return new Vector(xyz.reduce(length()));
-
-        //in some point we wiil need to change to:
-        /** double len=length();
-         double x= xyz.d1/len;
-         double y= xyz.d2 /len;
-         double z= xyz.d3/len;
-
-         return new Vector(x,y,z); **/
+        double lengthSquared=lengthSquared();
+        // a vector that is already normalized, like the direction of a ray, is returned as is
+        if(isZero(lengthSquared-1))
+            return this;
+        double len=Math.sqrt(lengthSquared);
+        return new Vector(this.x/len, this.y/len, this.z/len);
     }
 
     @Override
     public String toString() {
-        return "Vector:" + xyz;
+        return "Vector:(" + this.x + "," + this.y + "," + this.z + ")";
     }
 
     /**
@@ -89,20 +85,12 @@ public class Vector extends Point {
      * @return The sum of the two vectors.
      */
     public Vector add(Vector vector) {
-        return new Vector(xyz.add(vector.xyz));
+        return new Vector(this.x + vector.x, this.y + vector.y, this.z + vector.z);
     }
 
 
     public Vector subtract(Vector other){
-        return new Vector(xyz.subtract(other.xyz));
-
-        //in some point we change to:
-        /**
-         double x=xyz.d1 - other.xyz.d1;
-         double y=xyz.d2 - other.xyz.d2;
-         double z=xyz.d3 - other.xyz.d3;
-         **/
-
+        return new Vector(this.x - other.x, this.y - other.y, this.z - other.z);
     }
 
     /**
@@ -111,7 +99,7 @@ public class Vector extends Point {
      * @return The scaled vector.
      */
     public Vector scale(double x) {
-        return new Vector(xyz.scale(x));
+        return new Vector(this.x * x, this.y * x, this.z * x);
     }
 
     /**
@@ -120,9 +108,9 @@ public class Vector extends Point {
      * @return The cross product of the two vectors.
      */
     public Vector crossProduct(Vector other){
-        double x=this.xyz.d2 * other.xyz.d3 - this.xyz.d3 * other.xyz.d2;
-        double y=this.xyz.d3 * other.xyz.d1 - this.xyz.d1 * other.xyz.d3;
-        double z=this.xyz.d1 * other.xyz.d2 - this.xyz.d2 * other.xyz.d1;
+        double x=this.y * other.z - this.z * other.y;
+        double y=this.z * other.x - this.x * other.z;
+        double z=this.x * other.y - this.y * other.x;
         return new Vector(x,y,z);
     }
 
@@ -133,9 +121,9 @@ public class Vector extends Point {
      @return the dot product between this vector and the given vector
      */
     public double dotProduct(Vector vector){
-        double dotProduct = this.xyz.d1 * vector.xyz.d1 +
-                this.xyz.d2 * vector.xyz.d2 +
-                this.xyz.d3 * vector.xyz.d3;
+        double dotProduct = this.x * vector.x +
+                this.y * vector.y +
+                this.z * vector.z;
         return dotProduct;
     }
 
@@ -155,13 +143,13 @@ public class Vector extends Point {
         // convert to radians
         angle = Math.toRadians(angle);
 
-        double x = this.xyz.d1;
-        double y = this.xyz.d2;
-        double z = this.xyz.d3;
+        double x = this.x;
+        double y = this.y;
+        double z = this.z;
 
-        double u = rotationAxis.xyz.d1;
-        double v = rotationAxis.xyz.d2;
-        double w = rotationAxis.xyz.d3;
+        double u = rotationAxis.x;
+        double v = rotationAxis.y;
+        double w = rotationAxis.z;
 
         double dotProduct = this.dotProduct(rotationAxis);
 
@@ -3,7 +3,11 @@ import primitives.*;
 import primitives.Color;
 import primitives.Vector;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
 
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
@@ -14,7 +18,6 @@ import static primitives.Util.isZero;
  @author Maayan Amar
  */
 public class Camera {
-    private int _threadsCount = 3;
     private Point position; // The position of the camera
     private Vector vTo; // The direction vector pointing towards the target
     private Vector vUp; // The up vector
@@ -35,7 +38,15 @@ public class Camera {
      */
     private int _maxLevelAdaptiveSS = 3;
 
+    /**
+     * the threads rendering the images of the camera, or null for the default shared executor
+     */
+    private RenderExecutor _renderExecutor = null;
 
+    /**
+     * the file the finished tiles of a render are kept in until the render is finished, or null
+     */
+    private Path _checkpoint = null;
 
     /**
      * setter for _nSS
@@ -48,6 +59,30 @@ public class Camera {
         return this;
     }
 
+    /**
+     * setter for the threads rendering the images of the camera
+     *
+     * @param renderExecutor the executor, or null for the default shared executor
+     * @return this
+     */
+    public Camera setRenderExecutor(RenderExecutor renderExecutor) {
+        _renderExecutor = renderExecutor;
+        return this;
+    }
+
+    /**
+     * setter for the file the finished tiles of a render are kept in. A render that dies resumes from the tiles
+     * in the file when it is run again with the same scene, camera and image - the file is deleted once the
+     * render is finished. A scene that changed under the same name must be rendered with a new file.
+     *
+     * @param checkpoint the path of the file, or null for no checkpoint
+     * @return this
+     */
+    public Camera setCheckpoint(String checkpoint) {
+        _checkpoint = checkpoint == null ? null : Path.of(checkpoint);
+        return this;
+    }
+
     /**
      * function that gets the position of the camera
      *
@@ -184,19 +219,18 @@ public class Camera {
      * @return the ray
      */
     public Ray constructRay(int nX, int nY, int j, int i) {
-        Point pC = position.add(vTo.scale(distance)); // Calculate the center point of the image plane
-
         double rY = height / nY; // Calculate the height of a single pixel in the image plane
         double rX = width / nX; // Calculate the width of a single pixel in the image plane
 
         double yI = -(i - (nY - 1d) / 2) * rY; // Calculate the vertical offset of the pixel from the center
         double jX = (j - (nX - 1d) / 2) * rX; // Calculate the horizontal offset of the pixel from the center
-        Point Pij = pC; // Initialize the point on the image plane to the center point
 
-        if (yI != 0) Pij = Pij.add(vUp.scale(yI)); // Adjust the point vertically based on the offset
-        if (jX != 0) Pij = Pij.add(vRight.scale(jX)); // Adjust the point horizontally based on the offset
+        // the vector from the camera to the pixel: to the center of the image plane, then along it
+        ScratchVector dir = new ScratchVector().set(vTo).scale(distance);
+        if (yI != 0) dir.addScaled(vUp, yI); // Adjust the point vertically based on the offset
+        if (jX != 0) dir.addScaled(vRight, jX); // Adjust the point horizontally based on the offset
 
-        return new Ray(position, Pij.subtract(position)); // Create and return the constructed ray
+        return new Ray(position, dir.normalize().toVector()); // Create and return the constructed ray
     }
 
     /**
@@ -204,10 +238,13 @@ public class Camera {
      *
      * @param interval of grid
      * @param color    of grid
+     * @throws IllegalStateException if the image is streamed in strips - the grid is drawn on the whole image
      */
     public void printGrid(int interval, Color color) {
         if (imageWriter == null)
             throw new MissingResourceException("", "", "Camera is not initialized");
+        if (imageWriter.getStripHeight() != imageWriter.getNy())
+            throw new IllegalStateException("A grid cannot be printed on an image streamed in strips");
         for (int i = 0; i < imageWriter.getNx(); i++) {
             for (int j = 0; j < imageWriter.getNy(); j++) {
                 if ((i % interval == 0) || (j % interval == 0))
@@ -387,19 +424,8 @@ public class Camera {
      * @return this, builder pattern
      */
     public Camera renderImage() {
-        checkExceptions();
-        int nx = imageWriter.getNx();
-        int ny = imageWriter.getNy();
-        Pixel.initialize(imageWriter.getNy(), imageWriter.getNx(), 60);
-        for (int i = 0; i < nx; ++i) {
-            for (int j = 0; j < ny; ++j) {
-                imageWriter.writePixel(j, i, castRay(j, i));
-                Pixel.pixelDone();
-                //Pixel.printPixel();
-            }
-        }
+        renderTiles("renderImage", (col, row) -> imageWriter.writePixel(col, row, castRay(col, row)), 0);
         return this;
-
     }
 
 
@@ -408,15 +434,7 @@ public class Camera {
      * @return this, builder pattern
      */
     public Camera renderImageSuperSampling() {
-        checkExceptions();
-        // for each pixel
-        int nx = imageWriter.getNx();
-        int ny = imageWriter.getNy();
-        for (int i = 0; i < nx; i++) {
-            for (int j = 0; j < ny; j++) {
-                imageWriter.writePixel(j, i, castBeamSuperSampling(j, i));
-            }
-        }
+        renderTiles("renderImageSuperSampling", (col, row) -> imageWriter.writePixel(col, row, castBeamSuperSampling(col, row)), 0);
         return this;
     }
 
@@ -475,50 +493,169 @@ public class Camera {
     private List<Ray> constructBeamSuperSampling(int nX, int nY, int j, int i) {
         List<Ray> beam = new LinkedList<>();
         beam.add(constructRay(nX, nY, j, i));
+        double ry = height / nY;
+        double rx = width / nX;
+        ScratchVector pixelCenter = constructPixelCenter(nX, nY, j, i, new ScratchVector());
+        ScratchVector randomDirection = new ScratchVector();
+        Random rand = new Random();
+        // create rays randomly around the center ray
+        for (int c = 0; c < _nSS; c++)
+            beam.add(constructRandomRay(pixelCenter, rx, ry, rand, randomDirection));
+        return beam;
+    }
+
+    /**
+     * finds the vector from the camera to the center of a pixel
+     *
+     * @param nX          num of row pixels
+     * @param nY          num of col pixels
+     * @param j           col index
+     * @param i           row index
+     * @param pixelCenter scratch space for the vector
+     * @return the vector, in the scratch space
+     */
+    private ScratchVector constructPixelCenter(int nX, int nY, int j, int i, ScratchVector pixelCenter) {
         double ry = height / nY;
         double rx = width / nX;
         double yScale = alignZero((j - nX / 2d) * rx + rx / 2d);
         double xScale = alignZero((i - nY / 2d) * ry + ry / 2d);
-        Point pixelCenter = position.add(vTo.scale(distance)); // center
+        pixelCenter.set(vTo).scale(distance);
         if (!isZero(yScale))
-            pixelCenter = pixelCenter.add(vRight.scale(yScale));
+            pixelCenter.addScaled(vRight, yScale);
         if (!isZero(xScale))
-            pixelCenter = pixelCenter.add(vUp.scale(-1 * xScale));
-        Random rand = new Random();
-        // create rays randomly around the center ray
-        for (int c = 0; c < _nSS; c++) {
-            // move randomly in the pixel
-            double dxfactor = rand.nextBoolean() ? rand.nextDouble() : -1 * rand.nextDouble();
-            double dyfactor = rand.nextBoolean() ? rand.nextDouble() : -1 * rand.nextDouble();
-            double dx = rx * dxfactor;
-            double dy = ry * dyfactor;
-            Point randomPoint = pixelCenter;
-            if (!isZero(dx))
-                randomPoint = randomPoint.add(vRight.scale(dx));
-            if (!isZero(dy))
-                randomPoint = randomPoint.add(vUp.scale(-1 * dy));
-            beam.add(new Ray(position, randomPoint.subtract(position)));
-        }
-        return beam;
+            pixelCenter.addScaled(vUp, -1 * xScale);
+        return pixelCenter;
     }
 
     /**
-     * render the image using the image writer, using adaptive supersampling
+     * creates a ray in a random direction around the center of a pixel
+     *
+     * @param pixelCenter     the vector from the camera to the center of the pixel
+     * @param rx              the width of a pixel
+     * @param ry              the height of a pixel
+     * @param rand            the random numbers
+     * @param randomDirection scratch space for the direction of the ray
+     * @return the ray
+     */
+    private Ray constructRandomRay(ScratchVector pixelCenter, double rx, double ry, Random rand,
+                                   ScratchVector randomDirection) {
+        // move randomly in the pixel
+        double dxfactor = rand.nextBoolean() ? rand.nextDouble() : -1 * rand.nextDouble();
+        double dyfactor = rand.nextBoolean() ? rand.nextDouble() : -1 * rand.nextDouble();
+        double dx = rx * dxfactor;
+        double dy = ry * dyfactor;
+        randomDirection.set(pixelCenter.getX(), pixelCenter.getY(), pixelCenter.getZ());
+        if (!isZero(dx))
+            randomDirection.addScaled(vRight, dx);
+        if (!isZero(dy))
+            randomDirection.addScaled(vUp, -1 * dy);
+        return new Ray(position, randomDirection.normalize().toVector());
+    }
+
+    /**
+     * render the image progressively, writing the image after every pass
+     *
+     * @param samplesTarget the number of samples per pixel to stop at
+     * @param timeLimit     the time the render may take in seconds, 0 if it is not limited
      * @return this, builder pattern
+     * @see #renderImageProgressive(int, double, IntConsumer)
      */
-    public Camera renderImageAdaptiveSuperSampling() {
+    public Camera renderImageProgressive(int samplesTarget, double timeLimit) {
+        return renderImageProgressive(samplesTarget, timeLimit, samples -> imageWriter.writeToImage());
+    }
+
+    /**
+     * render the image progressively, in passes over the whole image: the first pass casts a ray through the
+     * center of every pixel, and every pass after it doubles the samples of every pixel (1, 2, 4... samples
+     * per pixel) by random rays in the pixel, as super sampling does. Every pixel shows the average of its
+     * samples so far, so there is a preview of the image after the first pass, that gets finer with every pass.
+     * The render stops once the pixels have the target number of samples, or once the time limit is over - the
+     * tiles a pass did not reach in time keep the samples of the pass before.
+     *
+     * @param samplesTarget the number of samples per pixel to stop at
+     * @param timeLimit     the time the render may take in seconds, 0 if it is not limited
+     * @param snapshot      called after every pass with the number of samples every pixel has, once the image
+     *                      writer holds the image of the pass
+     * @return this, builder pattern
+     * @throws IllegalArgumentException if the target is not positive
+     * @throws IllegalStateException    if the image writer does not hold the whole image
+     */
+    public Camera renderImageProgressive(int samplesTarget, double timeLimit, IntConsumer snapshot) {
+        if (samplesTarget <= 0)
+            throw new IllegalArgumentException("The samples target must be positive");
         checkExceptions();
-        // for each pixel
-        int nx = imageWriter.getNx();
-        int ny = imageWriter.getNy();
-        for (int i = 0; i < nx; i++) {
-            for (int j = 0; j < ny; j++) {
-                imageWriter.writePixel(j, i, castBeamAdaptiveSuperSampling(j, i));
+        int nX = imageWriter.getNx(), nY = imageWriter.getNy();
+        if (imageWriter.getStripHeight() != nY)
+            throw new IllegalStateException("A progressive render needs an image writer holding the whole image");
+
+        // the sums of the red, green and blue of the samples of every pixel, and the number of its samples
+        float[] sums = new float[3 * nX * nY];
+        int[] counts = new int[nX * nY];
+        long start = System.nanoTime();
+        for (int samples = 0; samples < samplesTarget; ) {
+            int passSamples = samples == 0 ? 1 : Math.min(samples, samplesTarget - samples);
+            double timeLeft = 0;
+            if (timeLimit != 0) {
+                timeLeft = timeLimit - (System.nanoTime() - start) / 1e9;
+                if (timeLeft <= 0)
+                    break;
             }
+            boolean finished = new RenderJob(nX, nY, 0).setTimeLimit(timeLeft)
+                    .run(renderExecutor(), (col, row) -> samplePixel(col, row, passSamples, sums, counts));
+            if (finished)
+                samples += passSamples;
+            snapshot.accept(samples);
+            if (!finished)
+                break;
         }
         return this;
     }
 
+    /**
+     * adds samples to a pixel of a progressive render, and writes the average of its samples
+     *
+     * @param j       col index
+     * @param i       row index
+     * @param samples the number of samples to add - the first sample of a pixel is through its center
+     * @param sums    the sums of the red, green and blue of the samples of every pixel
+     * @param counts  the number of samples of every pixel
+     */
+    private void samplePixel(int j, int i, int samples, float[] sums, int[] counts) {
+        int nX = imageWriter.getNx(), nY = imageWriter.getNy();
+        int pixel = i * nX + j;
+        double red = 0, green = 0, blue = 0;
+        if (counts[pixel] == 0) {
+            Color color = castRay(j, i);
+            red = color.getRed();
+            green = color.getGreen();
+            blue = color.getBlue();
+            samples = 1;
+        } else {
+            ScratchVector pixelCenter = constructPixelCenter(nX, nY, j, i, new ScratchVector());
+            ScratchVector randomDirection = new ScratchVector();
+            Random rand = ThreadLocalRandom.current();
+            for (int c = 0; c < samples; c++) {
+                Color color = rayTracer.traceRay(constructRandomRay(pixelCenter, width / nX, height / nY, rand,
+                        randomDirection));
+                red += color.getRed();
+                green += color.getGreen();
+                blue += color.getBlue();
+            }
+        }
+        int count = counts[pixel] += samples;
+        imageWriter.writePixel(j, i, new Color((sums[3 * pixel] += (float) red) / count,
+                (sums[3 * pixel + 1] += (float) green) / count, (sums[3 * pixel + 2] += (float) blue) / count));
+    }
+
+    /**
+     * render the image using the image writer, using adaptive supersampling
+     * @return this, builder pattern
+     */
+    public Camera renderImageAdaptiveSuperSampling() {
+        renderTiles("renderImageAdaptiveSuperSampling", (col, row) -> imageWriter.writePixel(col, row, castBeamAdaptiveSuperSampling(col, row)), 0);
+        return this;
+    }
+
     /**
      * casts beam of rays in pixel according to adaptive supersampling
      *
@@ -600,20 +737,70 @@ public class Camera {
 
     }
 
+    /**
+     * renders the image in a {@link RenderJob} of its own, on the threads of the render executor, in the strips
+     * of rows the image writer holds, keeping the finished tiles in the checkpoint file if there is one
+     *
+     * @param mode          the kind of render, a render resumes the tiles of the same kind only
+     * @param task          renders a pixel, called from several threads at once
+     * @param printInterval progress print interval in seconds, 0 if printing is not required
+     */
+    private void renderTiles(String mode, TileScheduler.PixelTask task, double printInterval) {
+        checkExceptions();
+        RenderJob job = new RenderJob(imageWriter.getNx(), imageWriter.getNy(), imageWriter.getStripHeight(),
+                printInterval);
+        RenderExecutor executor = renderExecutor();
+        if (_checkpoint == null) {
+            job.run(executor, task, imageWriter::stripDone);
+            return;
+        }
+
+        try {
+            RenderCheckpoint checkpoint = new RenderCheckpoint(_checkpoint, checkpointKey(mode), imageWriter,
+                    job.getTilesCount());
+            boolean finished = false;
+            try {
+                finished = job.setCheckpoint(checkpoint).run(executor, task, imageWriter::stripDone);
+            } finally {
+                if (finished)
+                    checkpoint.delete();
+                else
+                    checkpoint.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - the checkpoint file " + _checkpoint, e);
+        }
+    }
+
+    /**
+     * getter for the threads rendering the images of the camera
+     *
+     * @return the render executor of the camera, or the default shared executor
+     */
+    private RenderExecutor renderExecutor() {
+        return _renderExecutor == null ? RenderExecutor.getDefault() : _renderExecutor;
+    }
+
+    /**
+     * identifies a render for its checkpoint - the scene, the camera, the image and the kind of render
+     *
+     * @param mode the kind of render
+     * @return the key of the render
+     */
+    private String checkpointKey(String mode) {
+        return String.join("|", mode, rayTracer.getClass().getName(), rayTracer.scene.getName(),
+                String.valueOf(position), String.valueOf(vTo), String.valueOf(vUp),
+                String.valueOf(width), String.valueOf(height), String.valueOf(distance),
+                String.valueOf(_nSS), String.valueOf(_maxLevelAdaptiveSS), String.valueOf(imageWriter.getGamma()));
+    }
+
     /**
      * renders image using multithreading
      *
      * @return this
      */
     public Camera renderImageMultiThreading() {
-        Pixel.initialize(imageWriter.getNy(), imageWriter.getNx(), 1);
-        while (_threadsCount-- > 0) {
-            new Thread(() -> {
-                for (Pixel pixel = new Pixel(); pixel.nextPixel(); Pixel.pixelDone())
-                    imageWriter.writePixel(pixel.col, pixel.row, castRay(pixel.col, pixel.row));
-            }).start();
-        }
-        Pixel.waitToFinish();
+        renderTiles("renderImage", (col, row) -> imageWriter.writePixel(col, row, castRay(col, row)), 1);
         return this;
     }
 
@@ -623,17 +810,7 @@ public class Camera {
      * @return this
      */
     public Camera renderImageMultiThreadingASS() {
-        Pixel.initialize(imageWriter.getNy(), imageWriter.getNx(), 60);
-        while (_threadsCount-- > 0) {
-            new Thread(() -> {
-                for (Pixel pixel = new Pixel(); pixel.nextPixel(); Pixel.pixelDone())
-                    imageWriter.writePixel(pixel.col, pixel.row, castBeamAdaptiveSuperSampling(pixel.col, pixel.row));
-            }).start();
-        }
-        Pixel.waitToFinish();
+        renderTiles("renderImageAdaptiveSuperSampling", (col, row) -> imageWriter.writePixel(col, row, castBeamAdaptiveSuperSampling(col, row)), 60);
         return this;
     }
-
-
-
 }
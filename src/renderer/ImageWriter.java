@@ -1,19 +1,27 @@
 package renderer;
 
 import primitives.Color;
-import java.awt.image.BufferedImage;
-import java.io.File;
+
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-
-import javax.imageio.*;
+import java.util.zip.Deflater;
 
 /**
  * Image writer class combines accumulation of pixel color matrix and finally
- * producing a non-optimized jpeg image from this matrix. The class although is
+ * producing a png image from this matrix. The class although is
  * responsible for holding image related parameters of View Plane - pixel matrix
- * size and resolution
+ * size and resolution<br/>
+ * The pixels are written straight into an array, as packed RGB ints that are clamped and gamma corrected on the
+ * way in. Every pixel is a separate array element, so threads that render different pixels (like the tiles of
+ * a {@link RenderJob}) write at the same time without any locking, and the pixels are complete once the
+ * rendering threads were joined.<br/>
+ * A writer holds the whole image, or - for images too large for the memory - a strip of rows at a time: the
+ * camera renders the image strip by strip, every finished strip is encoded to the file and its rows are reused
+ * for the next one. The rows are compressed in blocks on the threads of a {@link RenderExecutor}.
  *
  * @author Dan
  */
@@ -21,26 +29,88 @@ public class ImageWriter {
     private int nX;
     private int nY;
 
-    private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
+    /**
+     * the system property that sets the folder the images are written to
+     */
+    public static final String FOLDER_PROPERTY = "renderer.images";
+
+    private static final String FOLDER_PATH =
+            System.getProperty(FOLDER_PROPERTY, System.getProperty("user.dir") + "/images");
 
-    private BufferedImage image;
     private String imageName;
 
+    /**
+     * the folder the image is written to
+     */
+    private String folder = FOLDER_PATH;
+
+    /**
+     * the number of rows held at a time, the height of the image unless the image is streamed
+     */
+    private final int stripHeight;
+
+    /**
+     * the first row of the strip held
+     */
+    private int stripStart = 0;
+
+    /**
+     * the pixels of the strip held, row by row, as packed 0xRRGGBB ints
+     */
+    private final int[] pixels;
+
+    /**
+     * the gamma the colors are corrected by when they are written, 1 for no correction
+     */
+    private double gamma = 1;
+
+    /**
+     * the compression level of the file
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * the threads that compress the file, or null for the default shared executor
+     */
+    private RenderExecutor renderExecutor = null;
+
+    /**
+     * encodes the streamed strips to the file, null until the first strip is done
+     */
+    private PngWriter png = null;
+
     private Logger logger = Logger.getLogger("ImageWriter");
 
     // ***************** Constructors ********************** //
     /**
      * Image Writer constructor accepting image name and View Plane parameters,
-     * @param imageName the name of jpeg file
+     * holding the whole image until it is written
+     * @param imageName the name of png file
      * @param nX        amount of pixels by Width
      * @param nY        amount of pixels by height
      */
     public ImageWriter(String imageName, int nX, int nY) {
+        this(imageName, nX, nY, nY);
+    }
+
+    /**
+     * Image Writer constructor accepting image name and View Plane parameters,
+     * streaming the image to the file in strips of rows. Only the rows of the current strip can be written,
+     * so the image has to be rendered strip by strip, as the camera does.
+     * @param imageName   the name of png file
+     * @param nX          amount of pixels by Width
+     * @param nY          amount of pixels by height
+     * @param stripHeight the number of rows held at a time, best a multiple of the tile size of the renderer
+     * @throws IllegalArgumentException if a size is not positive
+     */
+    public ImageWriter(String imageName, int nX, int nY, int stripHeight) {
+        if (nX <= 0 || nY <= 0 || stripHeight <= 0)
+            throw new IllegalArgumentException("The image and the strips must have positive sizes");
         this.imageName = imageName;
         this.nX = nX;
         this.nY = nY;
-
-        image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        this.stripHeight = Math.min(stripHeight, nY);
+        pixels = new int[nX * this.stripHeight];
     }
 
     // ***************** Getters/Setters ********************** //
@@ -62,33 +132,213 @@ public class ImageWriter {
         return nX;
     }
 
+    /**
+     * setter for the gamma the colors are corrected by when they are written
+     *
+     * @param gamma the gamma, 1 for no correction
+     * @return this
+     * @throws IllegalArgumentException if the gamma is not positive
+     */
+    public ImageWriter setGamma(double gamma) {
+        if (!(gamma > 0))
+            throw new IllegalArgumentException("The gamma must be positive");
+        this.gamma = gamma;
+        return this;
+    }
+
+    /**
+     * getter for the gamma the colors are corrected by when they are written
+     *
+     * @return the gamma
+     */
+    double getGamma() {
+        return gamma;
+    }
+
+    /**
+     * setter for the folder the image is written to, by default the images folder in the working directory or
+     * the folder set by the {@value #FOLDER_PROPERTY} system property. The folder is created if it is missing.
+     *
+     * @param folder the folder
+     * @return this
+     */
+    public ImageWriter setFolder(String folder) {
+        this.folder = folder;
+        return this;
+    }
+
+    /**
+     * setter for the compression level of the file - {@link Deflater#BEST_SPEED} writes previews fast,
+     * when the size of the file does not matter
+     *
+     * @param compressionLevel the level, from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION},
+     *                         or {@link Deflater#DEFAULT_COMPRESSION}
+     * @return this
+     * @throws IllegalArgumentException if the level is not a compression level
+     */
+    public ImageWriter setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("Illegal compression level " + compressionLevel);
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    /**
+     * setter for the threads that compress the file, in parallel blocks
+     *
+     * @param renderExecutor the executor, or null for the default shared executor
+     * @return this
+     */
+    public ImageWriter setRenderExecutor(RenderExecutor renderExecutor) {
+        this.renderExecutor = renderExecutor;
+        return this;
+    }
+
+    /**
+     * getter for the number of rows held at a time
+     *
+     * @return the height of the strips, the height of the image unless it is streamed
+     */
+    int getStripHeight() {
+        return stripHeight;
+    }
+
+    /**
+     * getter for the pixels of the strip held
+     *
+     * @return the pixels row by row, as packed 0xRRGGBB ints
+     */
+    int[] getPixels() {
+        return pixels;
+    }
+
     // ***************** Operations ******************** //
 
     /**
-     * Function writeToImage produces unoptimized png file of the image according to
-     * pixel color matrix in the directory of the project
+     * Function writeToImage produces png file of the image according to
+     * pixel color matrix in the images folder. A streamed image is finished,
+     * all its strips must have been done.
+     * @throws IllegalStateException if the file cannot be written, or if rows of a streamed image were not done
      */
     public void writeToImage() {
+        if (stripHeight == nY) {
+            writeRows();
+            return;
+        }
+        if (stripStart < nY)
+            throw new IllegalStateException("The rows from " + stripStart + " of the image were not rendered");
+        if (png == null)
+            return; // already written
         try {
-            File file = new File("C:/Users/bmteh/ISE5783_3826_5263/.images"+ '/' + imageName + ".png");
-            ImageIO.write(image, "png", file);
+            png.close();
         } catch (IOException e) {
-            logger.log(Level.SEVERE, "I/O error", e);
-            throw new IllegalStateException("I/O error - may be missing directory " + "C:/Users/bmteh/ISE5783_3826_5263/.images", e);
+            throw ioError(e);
+        } finally {
+            png = null;
         }
     }
 
+    /**
+     * The function stripDone tells that the rows of the strip held are final. A streamed image encodes them to
+     * the file and moves on to the next strip, while an image held whole keeps them until it is written.
+     * @throws IllegalStateException if the file cannot be written
+     */
+    void stripDone() {
+        if (stripHeight != nY)
+            writeRows();
+    }
+
+    /**
+     * encodes the rows of the strip held to the file, opening it on the first strip - an image held whole is
+     * written at once and its file is closed
+     */
+    private void writeRows() {
+        try {
+            if (png == null) {
+                Path path = Path.of(folder, imageName + ".png");
+                Files.createDirectories(path.getParent());
+                png = new PngWriter(new BufferedOutputStream(Files.newOutputStream(path)), nX, nY, compressionLevel,
+                        (renderExecutor == null ? RenderExecutor.getDefault() : renderExecutor).getExecutor());
+            }
+            int rows = Math.min(stripHeight, nY - stripStart);
+            png.writeRows(pixels, rows);
+            stripStart += rows;
+            if (stripHeight == nY)
+                png.close();
+        } catch (IOException e) {
+            throw ioError(e);
+        } finally {
+            if (stripHeight == nY) {
+                // an image held whole can be written again, after more pixels are written
+                png = null;
+                stripStart = 0;
+            }
+        }
+    }
+
+    /**
+     * reports a failure to write the file
+     *
+     * @param e the failure
+     * @return the exception to throw
+     */
+    private IllegalStateException ioError(IOException e) {
+        logger.log(Level.SEVERE, "I/O error", e);
+        return new IllegalStateException("I/O error - may be an inaccessible folder " + folder, e);
+    }
+
     /**
      * The function writePixel writes a color of a specific pixel into pixel color
      * matrix
      *
      * @param xIndex X-axis index of the pixel
-     * @param yIndex Y-axis index of the pixel
+     * @param yIndex Y-axis index of the pixel, in the strip held
      * @param color  final color of the pixel
+     * @throws IllegalArgumentException if the pixel is outside the strip held
      */
     public void writePixel(int xIndex, int yIndex, Color color) {
-        image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+        writeRGB(xIndex, yIndex, color.getRGB(gamma));
+    }
+
+    /**
+     * writes a packed color of a pixel
+     *
+     * @param xIndex X-axis index of the pixel
+     * @param yIndex Y-axis index of the pixel, in the strip held
+     * @param rgb    the color, as a packed 0xRRGGBB int, gamma corrected
+     * @throws IllegalArgumentException if the pixel is outside the strip held
+     */
+    void writeRGB(int xIndex, int yIndex, int rgb) {
+        pixels[index(xIndex, yIndex)] = rgb;
+    }
 
+    /**
+     * reads the packed color of a pixel
+     *
+     * @param xIndex X-axis index of the pixel
+     * @param yIndex Y-axis index of the pixel, in the strip held
+     * @return the color, as a packed 0xRRGGBB int, gamma corrected
+     * @throws IllegalArgumentException if the pixel is outside the strip held
+     */
+    int readRGB(int xIndex, int yIndex) {
+        return pixels[index(xIndex, yIndex)];
+    }
+
+    /**
+     * finds a pixel in the strip held
+     *
+     * @param xIndex X-axis index of the pixel
+     * @param yIndex Y-axis index of the pixel
+     * @return the position of the pixel in the pixels of the strip
+     * @throws IllegalArgumentException if the pixel is outside the strip held
+     */
+    private int index(int xIndex, int yIndex) {
+        if (xIndex < 0 || xIndex >= nX)
+            throw new IllegalArgumentException("Column " + xIndex + " is not in the image");
+        int row = yIndex - stripStart;
+        if (row < 0 || row >= stripHeight)
+            throw new IllegalArgumentException("Row " + yIndex + " is not in the strip of rows held");
+        return row * nX + xIndex;
     }
 
 }
@@ -0,0 +1,384 @@
+package renderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes an 8 bit RGB PNG image row by row, so the rows can be released once they are written and the image
+ * never has to be held whole. Every row is filtered by the PNG filter that leaves the smallest differences
+ * (the heuristic of libpng), deflated, and the compressed data is written in IDAT chunks of a bounded size.<br/>
+ * The rows are filtered and deflated in blocks of about {@value #BLOCK_SIZE} bytes, the way pigz does it: the
+ * blocks are independent tasks that may run on several threads, every block is deflated with the end of the
+ * block before it as its dictionary, so hardly any compression is lost, and ends with a sync flush, so the
+ * compressed blocks join into a single zlib stream. The thread that writes the rows keeps the checksum and
+ * writes the blocks in order.
+ */
+class PngWriter implements Closeable {
+    /**
+     * the signature every PNG file starts with
+     */
+    private static final byte[] SIGNATURE = {(byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n'};
+
+    /**
+     * the number of bytes of a pixel
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * the largest size of an IDAT chunk, in bytes
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * the number of filtered bytes deflated by a task, rounded to whole rows
+     */
+    private static final int BLOCK_SIZE = 1 << 17;
+
+    /**
+     * the size of the deflate window - the number of bytes of a block used as the dictionary of the next one
+     */
+    private static final int DICTIONARY_SIZE = 1 << 15;
+
+    /**
+     * the final deflate block that ends the stream - an empty block of fixed codes
+     */
+    private static final byte[] LAST_BLOCK = {3, 0};
+
+    /**
+     * the PNG filter types
+     */
+    private static final int NONE = 0, SUB = 1, UP = 2, AVERAGE = 3, PAETH = 4;
+
+    /**
+     * the stream the image is written to
+     */
+    private final DataOutputStream out;
+
+    /**
+     * the checksum of the chunks
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * the checksum of the filtered rows, that ends the zlib stream
+     */
+    private final Adler32 adler = new Adler32();
+
+    /**
+     * the compressed data of the IDAT chunk being filled
+     */
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+
+    /**
+     * the number of bytes in the IDAT chunk being filled
+     */
+    private int chunkLength = 0;
+
+    /**
+     * the number of pixel columns
+     */
+    private final int width;
+
+    /**
+     * the number of rows not written yet
+     */
+    private int rowsLeft;
+
+    /**
+     * the compression level
+     */
+    private final int level;
+
+    /**
+     * runs the filtering and the deflating of the blocks
+     */
+    private final Executor executor;
+
+    /**
+     * the last row written, above the next one
+     */
+    private final int[] lastRow;
+
+    /**
+     * the filtered rows of the last block, the dictionary of the next one - null before the first block
+     */
+    private CompletableFuture<byte[]> lastBlock = CompletableFuture.completedFuture(null);
+
+    /**
+     * Writes the header of an image, that is compressed on the writing thread by the default level
+     *
+     * @param out    the stream the image is written to, closed when the writer is closed
+     * @param width  the number of pixel columns
+     * @param height the number of pixel rows
+     * @throws IOException if the stream fails
+     */
+    PngWriter(OutputStream out, int width, int height) throws IOException {
+        this(out, width, height, Deflater.DEFAULT_COMPRESSION, Runnable::run);
+    }
+
+    /**
+     * Writes the header of an image
+     *
+     * @param out      the stream the image is written to, closed when the writer is closed
+     * @param width    the number of pixel columns
+     * @param height   the number of pixel rows
+     * @param level    the compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION},
+     *                 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param executor runs the filtering and the deflating of the blocks
+     * @throws IOException if the stream fails
+     */
+    PngWriter(OutputStream out, int width, int height, int level, Executor executor) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        rowsLeft = height;
+        this.level = level;
+        this.executor = executor;
+        lastRow = new int[width];
+
+        this.out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; // bits per component
+        header[9] = 2; // RGB
+        writeChunk("IHDR", header, header.length);
+
+        // the zlib header: deflate with a 32K window, and the level the data is compressed by
+        int flags = (level == Deflater.DEFAULT_COMPRESSION ? 2 : level <= 1 ? 0 : level <= 5 ? 1 : level == 6 ? 2 : 3)
+                << 6;
+        flags |= (31 - (0x78 << 8 | flags) % 31) % 31;
+        writeData(new byte[]{0x78, (byte) flags}, 2);
+    }
+
+    /**
+     * writes the next rows of the image, and waits for them to be compressed
+     *
+     * @param pixels the pixels of the rows, row by row, as packed 0xRRGGBB ints
+     * @param rows   the number of rows
+     * @throws IOException           if the stream fails
+     * @throws IllegalStateException if there are more rows than the image has left
+     */
+    void writeRows(int[] pixels, int rows) throws IOException {
+        if (rows > rowsLeft)
+            throw new IllegalStateException("The rows exceed the height of the image");
+        rowsLeft -= rows;
+
+        int blockRows = Math.max(1, BLOCK_SIZE / (1 + width * BYTES_PER_PIXEL));
+        int blocks = (rows + blockRows - 1) / blockRows;
+        List<CompletableFuture<byte[]>> filtered = new ArrayList<>(blocks);
+        List<CompletableFuture<byte[]>> deflated = new ArrayList<>(blocks);
+        for (int block = 0; block < blocks; ++block) {
+            int from = block * blockRows, to = Math.min(rows, from + blockRows);
+            int[] above = from == 0 ? lastRow.clone() : pixels;
+            int aboveOffset = from == 0 ? 0 : (from - 1) * width;
+            CompletableFuture<byte[]> rowsFiltered = CompletableFuture.supplyAsync(
+                    () -> filter(pixels, from, to, above, aboveOffset), executor);
+            deflated.add(rowsFiltered.thenCombineAsync(lastBlock, this::deflate, executor));
+            filtered.add(rowsFiltered);
+            lastBlock = rowsFiltered;
+        }
+        if (rows != 0)
+            System.arraycopy(pixels, (rows - 1) * width, lastRow, 0, width);
+
+        for (int block = 0; block < blocks; ++block) {
+            adler.update(filtered.get(block).join());
+            byte[] data = deflated.get(block).join();
+            writeData(data, data.length);
+        }
+    }
+
+    /**
+     * filters a block of rows, every row by the filter type that leaves the smallest sum of absolute differences
+     *
+     * @param pixels      the pixels of the rows, as packed 0xRRGGBB ints
+     * @param from        the first row of the block
+     * @param to          the row after the block
+     * @param above       the pixels of the row above the block
+     * @param aboveOffset the position of the row above the block in its array
+     * @return the filtered rows, each starting with its filter type
+     */
+    private byte[] filter(int[] pixels, int from, int to, int[] above, int aboveOffset) {
+        int rowBytes = width * BYTES_PER_PIXEL;
+        byte[] result = new byte[(to - from) * (1 + rowBytes)];
+        byte[] previous = new byte[rowBytes], current = new byte[rowBytes];
+        unpack(above, aboveOffset, previous);
+        byte[][] filtered = new byte[PAETH + 1][rowBytes];
+        long[] sums = new long[PAETH + 1];
+
+        for (int row = from, position = 0; row < to; ++row, position += 1 + rowBytes) {
+            unpack(pixels, row * width, current);
+            byte[] none = filtered[NONE], sub = filtered[SUB], up = filtered[UP],
+                    average = filtered[AVERAGE], paeth = filtered[PAETH];
+            Arrays.fill(sums, 0);
+            for (int i = 0; i < rowBytes; ++i) {
+                int x = current[i] & 0xFF, b = previous[i] & 0xFF;
+                int a = i < BYTES_PER_PIXEL ? 0 : current[i - BYTES_PER_PIXEL] & 0xFF;
+                int c = i < BYTES_PER_PIXEL ? 0 : previous[i - BYTES_PER_PIXEL] & 0xFF;
+                none[i] = (byte) x;
+                sub[i] = (byte) (x - a);
+                up[i] = (byte) (x - b);
+                average[i] = (byte) (x - ((a + b) >>> 1));
+                paeth[i] = (byte) (x - paethPredictor(a, b, c));
+                for (int type = NONE; type <= PAETH; ++type)
+                    sums[type] += Math.abs(filtered[type][i]);
+            }
+            int best = NONE;
+            for (int type = SUB; type <= PAETH; ++type)
+                if (sums[type] < sums[best])
+                    best = type;
+            result[position] = (byte) best;
+            System.arraycopy(filtered[best], 0, result, position + 1, rowBytes);
+
+            byte[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return result;
+    }
+
+    /**
+     * unpacks a row of pixels into its bytes
+     *
+     * @param pixels the pixels, as packed 0xRRGGBB ints
+     * @param offset the position of the row in the pixels
+     * @param bytes  the bytes of the row
+     */
+    private void unpack(int[] pixels, int offset, byte[] bytes) {
+        for (int col = 0, i = 0; col < width; ++col) {
+            int rgb = pixels[offset + col];
+            bytes[i++] = (byte) (rgb >> 16);
+            bytes[i++] = (byte) (rgb >> 8);
+            bytes[i++] = (byte) rgb;
+        }
+    }
+
+    /**
+     * the Paeth predictor of a byte - the neighbour closest to left + up - upper left
+     *
+     * @param a the byte on the left
+     * @param b the byte above
+     * @param c the byte on the upper left
+     * @return the predicted byte
+     */
+    private static int paethPredictor(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+        return pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+    }
+
+    /**
+     * deflates a block of filtered rows, ending with a sync flush so the next block can follow it
+     *
+     * @param block      the filtered rows
+     * @param dictionary the filtered rows of the block before, null for the first block
+     * @return the raw deflate data of the block
+     */
+    private byte[] deflate(byte[] block, byte[] dictionary) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                int length = Math.min(dictionary.length, DICTIONARY_SIZE);
+                deflater.setDictionary(dictionary, dictionary.length - length, length);
+            }
+            deflater.setInput(block);
+            ByteArrayOutputStream result = new ByteArrayOutputStream(block.length / 2 + 64);
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int length;
+            do {
+                length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                result.write(buffer, 0, length);
+            } while (length == buffer.length);
+            return result.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * adds compressed data to the IDAT chunks, writing every chunk that is filled
+     *
+     * @param data   the compressed data
+     * @param length the number of bytes of the data
+     * @throws IOException if the stream fails
+     */
+    private void writeData(byte[] data, int length) throws IOException {
+        for (int position = 0; position < length; ) {
+            int count = Math.min(length - position, chunk.length - chunkLength);
+            System.arraycopy(data, position, chunk, chunkLength, count);
+            position += count;
+            chunkLength += count;
+            if (chunkLength == chunk.length) {
+                writeChunk("IDAT", chunk, chunkLength);
+                chunkLength = 0;
+            }
+        }
+    }
+
+    /**
+     * ends the compressed data and the image, and closes the stream
+     *
+     * @throws IOException           if the stream fails
+     * @throws IllegalStateException if not all the rows of the image were written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsLeft != 0)
+                throw new IllegalStateException(rowsLeft + " rows of the image were not written");
+            byte[] checksum = new byte[4];
+            putInt(checksum, 0, (int) adler.getValue());
+            writeData(LAST_BLOCK, LAST_BLOCK.length);
+            writeData(checksum, checksum.length);
+            if (chunkLength != 0)
+                writeChunk("IDAT", chunk, chunkLength);
+            writeChunk("IEND", chunk, 0);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * writes a chunk of the file
+     *
+     * @param type   the type of the chunk
+     * @param data   the data of the chunk
+     * @param length the number of bytes of the data
+     * @throws IOException if the stream fails
+     */
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * writes an int in big endian order
+     *
+     * @param bytes  the bytes to write into
+     * @param offset the position of the int
+     * @param value  the int
+     */
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
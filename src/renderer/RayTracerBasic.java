@@ -3,6 +3,7 @@ package renderer;
 import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
+import geometries.HitCollector;
 import geometries.Intersectable.GeoPoint;
 
 import java.util.LinkedList;
@@ -36,6 +37,18 @@ public class RayTracerBasic extends RayTracerBase{
      */
     private int _nRays = 4;
 
+    /**
+     * the collector of the closest hits, one per rendering thread and reused by all its rays
+     */
+    private final ThreadLocal<HitCollector.Closest> closestCollector =
+            ThreadLocal.withInitial(HitCollector.Closest::new);
+
+    /**
+     * the collector of the transmittance towards the lights, one per rendering thread and reused by all its rays
+     */
+    private final ThreadLocal<HitCollector.Transmittance> transmittanceCollector =
+            ThreadLocal.withInitial(HitCollector.Transmittance::new);
+
     /**
      * Creates a RayTracerBasic object with the specified scene.
      * @param scene The scene to be rendered.
@@ -69,26 +82,19 @@ public class RayTracerBasic extends RayTracerBase{
     /**
      *  calculate the amount of shade covering the point
      * @param geopoint a point to check the shadow on
+     * @param l direction from the light source to the point
      * @param n normal to the geometry
      * @param lightSource the shading light
      * @return the amount of the shade
      */
-    private Double3 transparency(GeoPoint geopoint,  Vector n, LightSource lightSource){
-        Vector lightDirection = lightSource.getL(geopoint.point).scale(-1); // from point to light source
+    private Double3 transparency(GeoPoint geopoint, Vector l, Vector n, LightSource lightSource){
+        Vector lightDirection = l.scale(-1); // from point to light source
         Ray lightRay = new Ray(geopoint.point, lightDirection, n);
-        double lightDistance = lightSource.getDistance(geopoint.point);
-        List<GeoPoint> intersections = scene.getGeometries().
-                findGeoIntersections(lightRay);
-        if(intersections == null) return Double3.ONE;
-
-        Double3 transparent = Double3.ONE; // full transparency
-        for (GeoPoint gp : intersections) {
-            if (alignZero(gp.point.distance(geopoint.point) - lightDistance) <= 0) {
-                transparent = transparent.product(gp.geometry.getMaterial().getKt()); //the more transparency the less shadow
-                if (transparent.lowerThan(MIN_CALC_COLOR_K)) return Double3.ZERO;
-            }
-        }
-        return transparent;
+        double lightDistance = lightSource.getDistance(lightRay.getP0());
+        HitCollector.Transmittance collector = transmittanceCollector.get()
+                .reset(lightDistance, Double3.ONE, MIN_CALC_COLOR_K);
+        scene.getGeometries().findHits(lightRay, collector);
+        return collector.getResult();
     }
 
     /**
@@ -170,8 +176,8 @@ public class RayTracerBasic extends RayTracerBase{
      */
     private Color calcGlobalEffects(GeoPoint gp, Vector v, int level, Double3 k) {
         Color color = Color.BLACK;
-        Vector n = gp.geometry.getNormal(gp.point);
-        Material material = gp.geometry.getMaterial();
+        Vector n = gp.getNormal();
+        Material material = gp.getMaterial();
         Double3 kkr = k.product(material.getKr());
         // reflectance
         if (kkr.greaterThan(MIN_CALC_COLOR_K)) {
@@ -210,16 +216,16 @@ public class RayTracerBasic extends RayTracerBase{
         List<Ray> beam = new LinkedList<>();
         beam.add(ray);
         double widthFactor = 1 - coefficient;
-        Vector ortho;
+        double dn = ray.getDir().dotProduct(n);
+        ScratchVector ortho = new ScratchVector().set(n);
         // ortho = dir - (dir * n) * n
-        if (isZero(ray.getDir().dotProduct(n)))
-            ortho = n;
-        else
-            ortho = ray.getDir().subtract(n.scale(ray.getDir().dotProduct(n))).normalize();
+        if (!isZero(dn))
+            ortho.set(ray.getDir()).addScaled(n, -dn).normalize();
 
+        ScratchVector scratch = new ScratchVector();
         for (int i = 0; i < _nRays && !isZero(widthFactor); i++, widthFactor *= 0.9d) {
-            ortho = ortho.scale(widthFactor);
-            Vector dir = ray.getDir().add(ortho).normalize();
+            ortho.scale(widthFactor);
+            Vector dir = scratch.set(ray.getDir()).add(ortho).normalize().toVector();
             for (int j = 0; j < _nRays;
                  j++, dir = dir.rotate(ray.getDir(), 360d / _nRays)) {
                 // if the rays are on the same side of surface
@@ -239,13 +245,13 @@ public class RayTracerBasic extends RayTracerBase{
      */
     private Color calcLocalEffects(GeoPoint geoPoint, Ray ray, Double3 k) {
         Vector v = ray.getDir ();
-        Vector n = geoPoint.geometry.getNormal(geoPoint.point);
+        Vector n = geoPoint.getNormal();
 
         double nv = alignZero(n.dotProduct(v));
         if (nv == 0)
             return Color.BLACK;                                      // the camera doesn't see the light
 
-        Material mat = geoPoint.geometry.getMaterial();
+        Material mat = geoPoint.getMaterial();
         Color color = Color.BLACK;
 
         for (LightSource lightSource : scene.getLights()) {
@@ -255,7 +261,7 @@ public class RayTracerBasic extends RayTracerBase{
             if (nl * nv > 0 ) { // sign(nl) == sing(nv) ->
                 // the camera and the light source are on the same side of the surface
 
-                Double3 ktr = transparency(geoPoint, n, lightSource);
+                Double3 ktr = transparency(geoPoint, l, n, lightSource);
                 if (!ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) {  // the light is not shaded by other geometries
                     Color lightIntensity = lightSource.getIntensity(geoPoint.point).scale(ktr);
                     color = color.add(
@@ -278,10 +284,12 @@ public class RayTracerBasic extends RayTracerBase{
      * @return calculated intensity with the specular effect
      */
     private Color calcSpecular(Material mat, Vector l, Vector n, Vector v, Color lightIntensity) {
-        Vector r = reflectionVector(l, n);    // the specular ray
+        // the specular ray is r = l - 2 * (l ∙ n) * n, a unit vector for unit l and n,
+        // so −𝒗 ∙ 𝒓 = 2 * (l ∙ n) * (v ∙ n) - v ∙ l is found without building it
+        double minusVR = 2 * l.dotProduct(n) * v.dotProduct(n) - v.dotProduct(l);
         // the phong model formula for the specular effect: ks ∙ ( 𝒎𝒂𝒙 (𝟎, −𝒗 ∙ 𝒓) ^ 𝒏𝒔𝒉 ) ∙ 𝑰
         return lightIntensity
-                .scale(mat.getKs().scale( alignZero( Math.pow( Math.max(0, v.scale(-1).dotProduct(r)),
+                .scale(mat.getKs().scale( alignZero( Math.pow( Math.max(0, minusVR),
                         mat.getShininess()))));
     }
 
@@ -306,8 +314,9 @@ public class RayTracerBasic extends RayTracerBase{
      * @return the closest point
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        List<GeoPoint> intersectionPoints = scene.getGeometries().findGeoIntersections(ray);
-        return ray.findClosestGeoPoint(intersectionPoints);
+        HitCollector.Closest collector = closestCollector.get().reset(ray, Double.POSITIVE_INFINITY);
+        scene.getGeometries().findHits(ray, collector);
+        return collector.getResult();
     }
 
 
@@ -348,7 +357,7 @@ public class RayTracerBasic extends RayTracerBase{
     private Ray constructReflectedRay(Point point, Vector v, Vector n) {
         if (isZero(v.dotProduct(n)))
             return new Ray(point, v);
-        Vector r = v.subtract(n.scale(v.dotProduct(n)).scale(2)); // r = v - 2 * (v * n) * n
+        Vector r = new ScratchVector().set(v).addScaled(n, -2 * v.dotProduct(n)).toVector(); // r = v - 2 * (v * n) * n
         return new Ray(point, r, n);
     }
 
@@ -359,7 +368,7 @@ public class RayTracerBasic extends RayTracerBase{
      * @return the reflected vector
      */
     private Vector reflectionVector(Vector l, Vector n) {
-        return l.subtract(n.scale(2 * l.dotProduct(n))).normalize();
+        return new ScratchVector().set(l).addScaled(n, -2 * l.dotProduct(n)).normalize().toVector();
     }
 
 
@@ -0,0 +1,226 @@
+package renderer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A memory mapped file that keeps the finished tiles of a render, so a render that died - by a crash of the
+ * JVM as well - resumes from the tiles it finished. The file holds a header that identifies the render, a
+ * done byte per tile and the pixels of the image as packed 0xRRGGBB ints. A rendering thread copies the pixels
+ * of its tile into the file and only then marks the tile done, and every tile has its own byte and pixels, so
+ * the threads write to the file without any locking. The writes go to the pages the operating system shares
+ * with the file, so they survive the JVM.<br/>
+ * A render that is started with a file of another render - another image size, or a render key that differs -
+ * starts over.
+ */
+class RenderCheckpoint implements Closeable {
+    /**
+     * the bytes that start a checkpoint file - "RCP" and the version of the format
+     */
+    private static final int MAGIC = 0x52435001;
+
+    /**
+     * the alignment of the pixels in the file
+     */
+    private static final int PAGE_SIZE = 4096;
+
+    /**
+     * log2 of the number of pixels in a mapped segment of the file - a mapping is limited to 2GB
+     */
+    private static final int SEGMENT_SHIFT = 28;
+
+    /**
+     * the file
+     */
+    private final Path file;
+
+    /**
+     * the channel of the file
+     */
+    private final FileChannel channel;
+
+    /**
+     * the header and the done bytes of the tiles, a byte per tile after the header
+     */
+    private final MappedByteBuffer tiles;
+
+    /**
+     * the size of the header in bytes
+     */
+    private final int headerSize;
+
+    /**
+     * the pixels of the image, in segments of 2 ^ {@value #SEGMENT_SHIFT} pixels
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * the number of pixel columns of the image
+     */
+    private final int nX;
+
+    /**
+     * the image the tiles are restored to and saved from
+     */
+    private final ImageWriter imageWriter;
+
+    /**
+     * true if the render resumes the tiles of the file
+     */
+    private final boolean resumed;
+
+    /**
+     * Opens the checkpoint file of a render, resuming the tiles it holds if it belongs to the same render,
+     * or starting it over otherwise
+     *
+     * @param file        the file
+     * @param key         identifies the render - the scene, the camera and the rendering parameters
+     * @param imageWriter the image the tiles are restored to and saved from
+     * @param tilesCount  the number of tiles of the render
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    RenderCheckpoint(Path file, String key, ImageWriter imageWriter, int tilesCount) throws IOException {
+        this.file = file;
+        this.imageWriter = imageWriter;
+        nX = imageWriter.getNx();
+        long pixelsCount = (long) nX * imageWriter.getNy();
+
+        // the header: magic, the image, the tiles and the key
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] header = new byte[6 * Integer.BYTES + keyBytes.length];
+        ByteBuffer.wrap(header).putInt(MAGIC).putInt(nX).putInt(imageWriter.getNy())
+                .putInt(imageWriter.getStripHeight()).putInt(tilesCount).putInt(keyBytes.length).put(keyBytes);
+        headerSize = header.length;
+        long pixelsOffset = (headerSize + tilesCount + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+        long size = pixelsOffset + pixelsCount * Integer.BYTES;
+
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            resumed = channel.size() == size && Arrays.equals(header, read(header.length));
+            if (!resumed) {
+                // start over - an empty file of the size, so the tiles are not done
+                channel.truncate(0);
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            }
+            tiles = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize + tilesCount);
+            int segmentsCount = (int) ((pixelsCount + (1L << SEGMENT_SHIFT) - 1) >> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[segmentsCount];
+            for (int segment = 0; segment < segmentsCount; ++segment) {
+                long first = (long) segment << SEGMENT_SHIFT;
+                segments[segment] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        pixelsOffset + first * Integer.BYTES,
+                        Math.min(1L << SEGMENT_SHIFT, pixelsCount - first) * Integer.BYTES);
+            }
+            if (!resumed)
+                // the header is written last, a file cut while it was started over is started over again
+                tiles.put(0, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * reads the start of the file
+     *
+     * @param length the number of bytes to read
+     * @return the bytes, fewer if the file is shorter
+     * @throws IOException if the file cannot be read
+     */
+    private byte[] read(int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        int count = 0;
+        while (buffer.hasRemaining() && count >= 0)
+            count = channel.read(buffer, buffer.position());
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * tells whether the render resumes the tiles of the file
+     *
+     * @return true if the file belonged to the same render
+     */
+    boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * tells whether a tile was finished
+     *
+     * @param tile the number of the tile in the render
+     * @return true if the pixels of the tile are in the file
+     */
+    boolean isDone(int tile) {
+        return tiles.get(headerSize + tile) != 0;
+    }
+
+    /**
+     * marks a tile finished, after its pixels were saved
+     *
+     * @param tile the number of the tile in the render
+     */
+    void setDone(int tile) {
+        tiles.put(headerSize + tile, (byte) 1);
+    }
+
+    /**
+     * copies a pixel from the file to the image
+     *
+     * @param col column index of the pixel
+     * @param row row index of the pixel
+     */
+    void restore(int col, int row) {
+        long pixel = (long) row * nX + col;
+        imageWriter.writeRGB(col, row,
+                segments[(int) (pixel >> SEGMENT_SHIFT)].getInt((int) (pixel & (1 << SEGMENT_SHIFT) - 1) << 2));
+    }
+
+    /**
+     * copies a pixel from the image to the file
+     *
+     * @param col column index of the pixel
+     * @param row row index of the pixel
+     */
+    void save(int col, int row) {
+        long pixel = (long) row * nX + col;
+        segments[(int) (pixel >> SEGMENT_SHIFT)].putInt((int) (pixel & (1 << SEGMENT_SHIFT) - 1) << 2,
+                imageWriter.readRGB(col, row));
+    }
+
+    /**
+     * closes the file, keeping the finished tiles for a render that resumes them
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * closes the file and deletes it, once the render is finished. Where a mapped file cannot be deleted
+     * (on Windows, until the mapping is collected) its header is cleared, so the next render starts over.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    void delete() throws IOException {
+        tiles.putInt(0, 0);
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignore) {
+            // the file is not a checkpoint anymore
+        }
+    }
+}
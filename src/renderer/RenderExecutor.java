@@ -0,0 +1,134 @@
+package renderer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The threads that render the images. An executor lives across renders and is shared by all the render calls
+ * of all the cameras using it, so no threads are created per render. By default the cameras use a single
+ * shared executor with a thread per available processor.<br/>
+ * An executor runs on a work stealing {@link ForkJoinPool}, or - for pipelines that mix rendering with I/O,
+ * like a pixel task that writes to a stream - on virtual threads, one per tile, where the runtime has them.
+ */
+public class RenderExecutor {
+    /**
+     * the system property that sets the number of threads of the default executor
+     */
+    public static final String THREADS_PROPERTY = "renderer.threads";
+
+    /**
+     * the executor the cameras use unless they are given one, created on its first use
+     */
+    private static RenderExecutor defaultExecutor = null;
+
+    /**
+     * the threads
+     */
+    private final ExecutorService executor;
+
+    /**
+     * the number of tiles rendered at the same time
+     */
+    private final int parallelism;
+
+    /**
+     * Constructs an executor with a thread per available processor. The processors available to the JVM
+     * follow the CPU quota of the container it runs in.
+     */
+    public RenderExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an executor with a given number of threads
+     *
+     * @param threadsCount the number of rendering threads
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public RenderExecutor(int threadsCount) {
+        if (threadsCount <= 0)
+            throw new IllegalArgumentException("The number of rendering threads must be positive");
+        executor = new ForkJoinPool(threadsCount);
+        parallelism = threadsCount;
+    }
+
+    /**
+     * Constructs an executor over given threads
+     *
+     * @param executor    the threads
+     * @param parallelism the number of tiles rendered at the same time
+     */
+    private RenderExecutor(ExecutorService executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Creates an executor that renders every tile in a virtual thread of its own
+     *
+     * @return the executor
+     * @throws UnsupportedOperationException if the runtime has no virtual threads
+     */
+    public static RenderExecutor virtualThreads() {
+        try {
+            // looked up by name, as the sources keep to a language level without virtual threads
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            // the virtual threads are run by a carrier thread per available processor
+            return new RenderExecutor(executor, Runtime.getRuntime().availableProcessors());
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not available in this runtime", e);
+        }
+    }
+
+    /**
+     * getter for the executor the cameras use unless they are given one. It is created on the first call,
+     * with the number of threads set by the {@value #THREADS_PROPERTY} system property,
+     * or a thread per available processor.
+     *
+     * @return the default executor
+     */
+    public static synchronized RenderExecutor getDefault() {
+        if (defaultExecutor == null) {
+            Integer threadsCount = Integer.getInteger(THREADS_PROPERTY);
+            defaultExecutor = threadsCount == null ? new RenderExecutor() : new RenderExecutor(threadsCount);
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * setter for the executor the cameras use unless they are given one. The previous default executor is not
+     * shut down, as renders may still run on it.
+     *
+     * @param executor the new default executor
+     */
+    public static synchronized void setDefault(RenderExecutor executor) {
+        defaultExecutor = executor;
+    }
+
+    /**
+     * getter for the number of tiles rendered at the same time
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * getter for the threads
+     *
+     * @return the threads
+     */
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * stops the threads once the renders running on the executor finish - it cannot render anymore
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
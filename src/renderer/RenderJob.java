@@ -0,0 +1,425 @@
+package renderer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A single rendering of an image: its tiles and its progress belong to the job and nothing is shared between
+ * jobs but the threads of the {@link RenderExecutor} they run on, so any number of cameras may render at the
+ * same time, over the same scene as well.<br/>
+ * The image is rendered in strips of rows, one after the other, so a strip can be written out and released
+ * before the next one is rendered - an image held whole is a single strip. Within a strip, on a
+ * {@link ForkJoinPool} the range of tiles is split in halves recursively, so there is no shared lock:
+ * every thread works through the tiles it split off, and an idle thread steals the largest range left in the
+ * queue of a busy one. On other executors every tile is a task of its own. The threads count the pixels they
+ * finish per tile in a striped counter, and the thread that runs the job sums the stripes when it prints the
+ * progress.
+ */
+class RenderJob {
+    /**
+     * the progress print format
+     */
+    private static final String PRINT_FORMAT = "%5.1f%%\r";
+
+    /**
+     * the number of pixel columns of the image
+     */
+    private final int nX;
+
+    /**
+     * the number of pixel rows of the image
+     */
+    private final int nY;
+
+    /**
+     * the number of rows of a strip
+     */
+    private final int stripHeight;
+
+    /**
+     * the number of pixels of the image
+     */
+    private final long totalPixels;
+
+    /**
+     * progress print interval in milliseconds, 0 if printing is not required
+     */
+    private final long printInterval;
+
+    /**
+     * the number of pixels done so far
+     */
+    private final LongAdder pixels = new LongAdder();
+
+    /**
+     * the number of pixels done when the progress was last printed
+     */
+    private long lastPrinted = -1;
+
+    /**
+     * set when the job is cancelled, so the tiles not started yet are skipped
+     */
+    private volatile boolean cancelled = false;
+
+    /**
+     * the time the job may take in nanoseconds, 0 if it is not limited
+     */
+    private long timeLimit = 0;
+
+    /**
+     * the {@link System#nanoTime()} the time limit is over at
+     */
+    private long deadline;
+
+    /**
+     * the file the finished tiles are kept in, or null if they are not kept
+     */
+    private RenderCheckpoint checkpoint = null;
+
+    /**
+     * Constructs a job rendering an image in a single strip
+     *
+     * @param nX            the number of pixel columns
+     * @param nY            the number of pixel rows
+     * @param printInterval progress print interval in seconds, 0 if printing is not required
+     * @throws IllegalArgumentException if a size is not positive
+     */
+    RenderJob(int nX, int nY, double printInterval) {
+        this(nX, nY, nY, printInterval);
+    }
+
+    /**
+     * Constructs a job rendering an image in strips of rows
+     *
+     * @param nX            the number of pixel columns
+     * @param nY            the number of pixel rows
+     * @param stripHeight   the number of rows of a strip
+     * @param printInterval progress print interval in seconds, 0 if printing is not required
+     * @throws IllegalArgumentException if a size is not positive
+     */
+    RenderJob(int nX, int nY, int stripHeight, double printInterval) {
+        if (nX <= 0 || nY <= 0 || stripHeight <= 0)
+            throw new IllegalArgumentException("The image and the strips must have positive sizes");
+        this.nX = nX;
+        this.nY = nY;
+        this.stripHeight = stripHeight;
+        totalPixels = (long) nX * nY;
+        this.printInterval = (long) (printInterval * 1000);
+    }
+
+    /**
+     * setter for the file the finished tiles are kept in - the tiles it holds are restored instead of rendered
+     *
+     * @param checkpoint the checkpoint, or null if the tiles are not kept
+     * @return this
+     */
+    RenderJob setCheckpoint(RenderCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    /**
+     * setter for the time the job may take - once it is over, the job is cancelled: the tiles in progress are
+     * finished and the tiles not started yet are skipped
+     *
+     * @param timeLimit the time in seconds, 0 if it is not limited
+     * @return this
+     */
+    RenderJob setTimeLimit(double timeLimit) {
+        this.timeLimit = (long) (timeLimit * 1e9);
+        return this;
+    }
+
+    /**
+     * getter for the number of tiles of all the strips
+     *
+     * @return the number of tiles
+     */
+    int getTilesCount() {
+        int tilesX = (nX + TileScheduler.DEFAULT_TILE_SIZE - 1) / TileScheduler.DEFAULT_TILE_SIZE;
+        int fullStrips = nY / stripHeight, lastRows = nY % stripHeight;
+        return tilesX * (fullStrips * tilesY(stripHeight) + tilesY(lastRows));
+    }
+
+    /**
+     * the number of tile rows of a strip
+     *
+     * @param rows the number of pixel rows of the strip
+     * @return the number of tile rows
+     */
+    private static int tilesY(int rows) {
+        return (rows + TileScheduler.DEFAULT_TILE_SIZE - 1) / TileScheduler.DEFAULT_TILE_SIZE;
+    }
+
+    /**
+     * getter for the number of pixels done so far
+     *
+     * @return the number of pixels
+     */
+    long getPixelsDone() {
+        return pixels.sum();
+    }
+
+    /**
+     * a strip of rows of the image, with its tiles
+     */
+    private class Strip {
+        /**
+         * the tiles of the strip
+         */
+        private final TileScheduler tiles;
+
+        /**
+         * the number of the first tile of the strip in the render - the number of tiles of the strips before
+         */
+        private final int firstTile;
+
+        /**
+         * renders a pixel, its row counted from the first row of the strip
+         */
+        private final TileScheduler.PixelTask render;
+
+        /**
+         * restores a pixel from the checkpoint, its row counted from the first row of the strip
+         */
+        private final TileScheduler.PixelTask restore;
+
+        /**
+         * saves a pixel to the checkpoint, its row counted from the first row of the strip
+         */
+        private final TileScheduler.PixelTask save;
+
+        /**
+         * @param tiles     the tiles of the strip
+         * @param firstTile the number of the first tile of the strip in the render
+         * @param firstRow  the first row of the strip
+         * @param task      renders a pixel
+         */
+        Strip(TileScheduler tiles, int firstTile, int firstRow, TileScheduler.PixelTask task) {
+            this.tiles = tiles;
+            this.firstTile = firstTile;
+            render = shift(task, firstRow);
+            restore = checkpoint == null ? null : shift(checkpoint::restore, firstRow);
+            save = checkpoint == null ? null : shift(checkpoint::save, firstRow);
+        }
+    }
+
+    /**
+     * moves a task to the rows of a strip
+     *
+     * @param task     the task, for the rows of the image
+     * @param firstRow the first row of the strip
+     * @return the task for the rows of the strip
+     */
+    private static TileScheduler.PixelTask shift(TileScheduler.PixelTask task, int firstRow) {
+        return firstRow == 0 ? task : (col, row) -> task.render(col, firstRow + row);
+    }
+
+    /**
+     * renders a range of the tiles, splitting it in halves until single tiles are left
+     */
+    private class TileRange extends RecursiveAction {
+        /**
+         * the version of the serialized form of the range of tiles
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * position of the first tile of the range
+         */
+        private final int from;
+
+        /**
+         * position after the last tile of the range
+         */
+        private final int to;
+
+        /**
+         * the strip of the tiles
+         */
+        private final Strip strip;
+
+        /**
+         * @param from  position of the first tile of the range
+         * @param to    position after the last tile of the range
+         * @param strip the strip of the tiles
+         */
+        TileRange(int from, int to, Strip strip) {
+            this.from = from;
+            this.to = to;
+            this.strip = strip;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                renderTile(strip, from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileRange(from, middle, strip), new TileRange(middle, to, strip));
+        }
+    }
+
+    /**
+     * renders a tile and counts its pixels, unless the job was cancelled. A tile the checkpoint holds is
+     * restored from it instead, and a rendered tile is saved to it.
+     *
+     * @param strip    the strip of the tile
+     * @param position position of the tile in the order of the tiles of the strip
+     */
+    private void renderTile(Strip strip, int position) {
+        if (cancelled)
+            return;
+        if (checkpoint == null) {
+            pixels.add(strip.tiles.renderTile(position, strip.render));
+            return;
+        }
+        int tile = strip.firstTile + position;
+        if (checkpoint.isDone(tile)) {
+            pixels.add(strip.tiles.renderTile(position, strip.restore));
+            return;
+        }
+        pixels.add(strip.tiles.renderTile(position, strip.render));
+        strip.tiles.renderTile(position, strip.save);
+        checkpoint.setDone(tile);
+    }
+
+    /**
+     * renders all the pixels of the image and waits for the rendering to finish, printing the progress.
+     * If the waiting thread is interrupted the job is cancelled, leaving the image partly rendered.
+     *
+     * @param executor the rendering threads
+     * @param task     renders a pixel, called from several threads at once
+     * @return true if the image was rendered, false if the job was cancelled
+     */
+    boolean run(RenderExecutor executor, TileScheduler.PixelTask task) {
+        return run(executor, task, () -> {
+        });
+    }
+
+    /**
+     * renders all the pixels of the image strip by strip, printing the progress. Every strip is rendered, and
+     * its rendering threads are joined, before the next one starts.
+     * If the waiting thread is interrupted the job is cancelled, leaving the image partly rendered.
+     *
+     * @param executor  the rendering threads
+     * @param task      renders a pixel, called from several threads at once
+     * @param stripDone called by the thread that runs the job after every strip is rendered
+     * @return true if the image was rendered, false if the job was cancelled
+     */
+    boolean run(RenderExecutor executor, TileScheduler.PixelTask task, Runnable stripDone) {
+        boolean print = printInterval != 0;
+        if (print)
+            System.out.printf(PRINT_FORMAT, 0d);
+        deadline = System.nanoTime() + timeLimit;
+
+        TileScheduler tiles = null;
+        for (int stripStart = 0, firstTile = 0; stripStart < nY; stripStart += stripHeight) {
+            int rows = Math.min(stripHeight, nY - stripStart);
+            if (tiles == null || rows != stripHeight)
+                tiles = new TileScheduler(nX, rows, TileScheduler.DEFAULT_TILE_SIZE);
+            if (!renderStrip(executor, new Strip(tiles, firstTile, stripStart, task)) || cancelled)
+                return false;
+            firstTile += tiles.getTilesCount();
+            stripDone.run();
+        }
+
+        if (print)
+            System.out.println("100.0%");
+        return true;
+    }
+
+    /**
+     * renders the tiles of a strip and waits for them to finish
+     *
+     * @param executor the rendering threads
+     * @param strip    the strip
+     * @return true if the strip was rendered, false if the waiting thread was interrupted
+     */
+    private boolean renderStrip(RenderExecutor executor, Strip strip) {
+        Future<?> render;
+        if (executor.getExecutor() instanceof ForkJoinPool pool)
+            render = pool.submit(new TileRange(0, strip.tiles.getTilesCount(), strip));
+        else {
+            CompletableFuture<?>[] tileRenders = new CompletableFuture<?>[strip.tiles.getTilesCount()];
+            for (int position = 0; position < tileRenders.length; ++position) {
+                int tile = position;
+                tileRenders[position] = CompletableFuture.runAsync(() -> renderTile(strip, tile),
+                        executor.getExecutor());
+            }
+            render = CompletableFuture.allOf(tileRenders);
+        }
+
+        waitToFinish(render);
+        if (!render.isDone()) {
+            // interrupted while waiting - the threads are shared, so only the tiles of this job are stopped
+            cancelled = true;
+            render.cancel(true);
+            return false;
+        }
+        try {
+            render.get();
+        } catch (ExecutionException e) {
+            // the failure of a rendering thread - the tiles of the job still queued are skipped
+            cancelled = true;
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * waits for the rendering of a strip to finish, printing the progress percentage
+     *
+     * @param render the rendering, done once all the pixels are done or a rendering thread failed
+     */
+    private void waitToFinish(Future<?> render) {
+        while (!render.isDone()) {
+            long timeout = printInterval != 0 ? TimeUnit.MILLISECONDS.toNanos(printInterval) : Long.MAX_VALUE;
+            if (timeLimit != 0 && !cancelled) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    // out of time - the tiles in progress are finished
+                    cancelled = true;
+                    continue;
+                }
+                timeout = Math.min(timeout, left);
+            }
+            try {
+                render.get(timeout, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ignore) {
+                if (printInterval != 0)
+                    printProgress();
+            } catch (ExecutionException ignore) {
+                // the failure is reported by renderStrip
+            } catch (InterruptedException ignore) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * prints the progress percentage, if it changed since it was last printed
+     */
+    private void printProgress() {
+        long current = pixels.sum();
+        if (lastPrinted != current) {
+            lastPrinted = current;
+            System.out.println((int) (1000l * current / totalPixels) / 10d);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package renderer;
+
+import java.util.Arrays;
+
+/**
+ * Divides the pixels of an image into square tiles, handed to the rendering threads by a {@link RenderJob}
+ * instead of one pixel at a time. The tiles are ordered along a Morton (Z-order) curve, so consecutive tiles
+ * are close on the image and share the geometries their rays hit.
+ */
+class TileScheduler {
+    /**
+     * renders a single pixel
+     */
+    interface PixelTask {
+        /**
+         * @param col column index of the pixel
+         * @param row row index of the pixel
+         */
+        void render(int col, int row);
+    }
+
+    /**
+     * default length of the side of a tile, in pixels
+     */
+    static final int DEFAULT_TILE_SIZE = 16;
+
+    /**
+     * the number of pixel columns of the image
+     */
+    private final int nX;
+
+    /**
+     * the number of pixel rows of the image
+     */
+    private final int nY;
+
+    /**
+     * length of the side of a tile, in pixels - the tiles on the right and bottom edges may be smaller
+     */
+    private final int tileSize;
+
+    /**
+     * the number of tile columns
+     */
+    private final int tilesX;
+
+    /**
+     * the tiles in the order they are rendered, every tile is given by tileRow * tilesX + tileCol
+     */
+    private final int[] order;
+
+    /**
+     * Builds the tiles of an image
+     *
+     * @param nX       the number of pixel columns
+     * @param nY       the number of pixel rows
+     * @param tileSize length of the side of a tile, in pixels
+     * @throws IllegalArgumentException if a size is not positive
+     */
+    TileScheduler(int nX, int nY, int tileSize) {
+        if (nX <= 0 || nY <= 0 || tileSize <= 0)
+            throw new IllegalArgumentException("The image and the tiles must have positive sizes");
+        this.nX = nX;
+        this.nY = nY;
+        this.tileSize = tileSize;
+        tilesX = (nX + tileSize - 1) / tileSize;
+        int tilesY = (nY + tileSize - 1) / tileSize;
+
+        // sort the tiles by their Morton codes, kept in the high bits with the tile in the low bits
+        long[] keys = new long[tilesX * tilesY];
+        for (int tile = 0; tile < keys.length; ++tile)
+            keys[tile] = morton(tile % tilesX, tile / tilesX) << 32 | tile;
+        Arrays.sort(keys);
+        order = new int[keys.length];
+        for (int i = 0; i < keys.length; ++i)
+            order[i] = (int) keys[i];
+    }
+
+    /**
+     * interleaves the bits of the tile coordinates, x in the even bits and y in the odd ones
+     *
+     * @param x tile column
+     * @param y tile row
+     * @return the position of the tile on the Morton curve
+     */
+    private static long morton(int x, int y) {
+        long code = 0;
+        for (int bit = 0; bit < 16; ++bit)
+            code |= ((x >> bit) & 1L) << (2 * bit) | ((y >> bit) & 1L) << (2 * bit + 1);
+        return code;
+    }
+
+    /**
+     * getter for the number of tiles
+     *
+     * @return the number of tiles
+     */
+    int getTilesCount() {
+        return order.length;
+    }
+
+    /**
+     * finds the tile rendered at a given position of the order
+     *
+     * @param position position in the order of the tiles
+     * @return the tile, given by tileRow * number of tile columns + tileCol
+     */
+    int getTile(int position) {
+        return order[position];
+    }
+
+    /**
+     * renders all the pixels of a tile
+     *
+     * @param position position of the tile in the order of the tiles
+     * @param task     renders a pixel
+     * @return the number of pixels of the tile
+     */
+    int renderTile(int position, PixelTask task) {
+        int tile = order[position];
+        int col0 = tile % tilesX * tileSize, row0 = tile / tilesX * tileSize;
+        int col1 = Math.min(col0 + tileSize, nX), row1 = Math.min(row0 + tileSize, nY);
+        for (int row = row0; row < row1; ++row)
+            for (int col = col0; col < col1; ++col)
+                task.render(col, row);
+        return (col1 - col0) * (row1 - row0);
+    }
+}
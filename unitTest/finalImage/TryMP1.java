@@ -77,6 +77,8 @@ public class TryMP1 {
         ball(new Point(3000,-225,25), new Color(231, 76, 60));
 
 
+        scene.getGeometries().buildBvh();
+
         camera.setImageWriter(new ImageWriter("final picture", 2000, 2000)) //
                 .setRayTracer(new RayTracerBasic(scene)) //
                // .renderImage()
@@ -146,22 +148,28 @@ public class TryMP1 {
 //
 //    }
 
+    //the bowling pin model, built once around the origin and placed by instances
+    private Geometries pin;
+
     public void addPin(Point p)
     {
-        Material pinBody = new Material().setKt(0.2).setShininess(30).setKs(30).setKd(5).setKr(0.03);
-        scene.getGeometries().add(
-                new Sphere(new Point(p.getX(), p.getY(), p.getZ()+12), 17).setEmission(new Color(235, 245, 251  )).setMaterial(new Material().setShininess(30).setKs(1).setKd(0.25).setKr(0.5)),
-                new Sphere(new Point(p.getX(), p.getY(), p.getZ()), 17) .setEmission(new Color (235, 245, 251 )).setMaterial(new Material().setShininess(30).setKs(1).setKd(0.25).setKr(0.5)),
-                //
-                new Cylinder( 15, new Ray(new Point(p.getX(), p.getY(), p.getZ()+27), new Vector(0, 0, 1)), 8).setEmission(new Color(RED)).setMaterial(new Material().setShininess(25).setKs(1).setKd(0.25).setKr(0.1)),
-                new Cylinder( 15, new Ray(new Point(p.getX(),  p.getY(), p.getZ()+28), new Vector(0, 0, 1)), 8).setEmission(new Color(RED)).setMaterial(new Material().setShininess(25).setKs(1).setKd(0.25).setKr(0.1)),
-
-                new Sphere(new Point(p.getX(),  p.getY(), p.getZ()+29), 8).setEmission(new Color(235, 245, 251 )).setMaterial(new Material().setShininess(40).setKs(1).setKd(0.25).setKr(0.5)),
-                new Sphere(new Point(p.getX(),  p.getY(), p.getZ()+34.7), 8.3).setEmission(new Color(235, 245, 251 )).setMaterial(new Material().setShininess(40).setKs(1).setKd(0.25).setKr(0.5))
-
+        if (pin == null)
+            pin = createPin();
+        scene.getGeometries().add(new Instance(pin, Transform.translation(p.subtract(Point.ZERO))));
+    }
 
-        );
+    private Geometries createPin()
+    {
+        return new Geometries(
+                new Sphere(new Point(0, 0, 12), 17).setEmission(new Color(235, 245, 251  )).setMaterial(new Material().setShininess(30).setKs(1).setKd(0.25).setKr(0.5)),
+                new Sphere(new Point(0, 0, 0), 17) .setEmission(new Color (235, 245, 251 )).setMaterial(new Material().setShininess(30).setKs(1).setKd(0.25).setKr(0.5)),
+                //
+                new Cylinder( 1, new Ray(new Point(0, 0, 27), new Vector(0, 0, 1)), 8).setEmission(new Color(RED)).setMaterial(new Material().setShininess(25).setKs(1).setKd(0.25).setKr(0.1)),
+                new Cylinder( 1, new Ray(new Point(0, 0, 28), new Vector(0, 0, 1)), 8).setEmission(new Color(RED)).setMaterial(new Material().setShininess(25).setKs(1).setKd(0.25).setKr(0.1)),
 
+                new Sphere(new Point(0, 0, 29), 8).setEmission(new Color(235, 245, 251 )).setMaterial(new Material().setShininess(40).setKs(1).setKd(0.25).setKr(0.5)),
+                new Sphere(new Point(0, 0, 34.7), 8.3).setEmission(new Color(235, 245, 251 )).setMaterial(new Material().setShininess(40).setKs(1).setKd(0.25).setKr(0.5))
+        ).buildBvh();
     }
 
     private void createWalls() {
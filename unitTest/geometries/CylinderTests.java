@@ -3,7 +3,9 @@ package geometries;
 import org.junit.jupiter.api.Test;
 import primitives.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 /**
  * The  CylinderTests class is responsible for testing the Cylinder class.
  * It includes unit tests for getNormal method  .
@@ -41,4 +43,42 @@ class CylinderTests {
         assertEquals(new Vector(0, 1, 0), cyl.getNormal(new Point(0, 1, 2)), "Bad normal to edge with upper base");
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Cylinder#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Cylinder cyl = new Cylinder(2, new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the side twice
+        assertEquals(List.of(new Point(-1, 0, 1), new Point(1, 0, 1)),
+                cyl.findIntersections(new Ray(new Point(-2, 0, 1), new Vector(1, 0, 0))), "Wrong side points");
+
+        // TC02: Ray crosses both bases
+        assertEquals(List.of(new Point(0.5, 0, 2), new Point(0.5, 0, 0)),
+                cyl.findIntersections(new Ray(new Point(0.5, 0, 5), new Vector(0, 0, -1))), "Wrong base points");
+
+        // TC03: Ray crosses a base and the side
+        assertEquals(List.of(new Point(0, 0, 2), new Point(1, 0, 1)),
+                cyl.findIntersections(new Ray(new Point(-1, 0, 3), new Vector(1, 0, -1))), "Wrong base and side points");
+
+        // TC04: Ray passes the infinite tube beyond the height (0 points)
+        assertNull(cyl.findIntersections(new Ray(new Point(-2, 0, 3), new Vector(1, 0, 0))),
+                "Ray above the cylinder");
+
+        // TC05: Ray starts inside the cylinder (1 point)
+        assertEquals(List.of(new Point(0, 0, 2)),
+                cyl.findIntersections(new Ray(new Point(0, 0, 1), new Vector(0, 0, 1))), "Wrong point from inside");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray through the rim of a base (0 points)
+        assertNull(cyl.findIntersections(new Ray(new Point(1, 0, 5), new Vector(0, 0, -1))), "Ray along the side");
+
+        // TC12: the bounding box holds both bases
+        Cylinder tilted = new Cylinder(4, new Ray(new Point(1, 1, 1), new Vector(1, 0, 0)), 2);
+        assertEquals(new Point(1, -1, -1), tilted._box._minimums, "Wrong box minimums");
+        assertEquals(new Point(5, 3, 3), tilted._box._maximums, "Wrong box maximums");
+    }
+}
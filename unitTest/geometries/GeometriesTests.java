@@ -1,10 +1,13 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 import java.util.*;
+import geometries.Intersectable.GeoPoint;
 
 import static org.junit.jupiter.api.Assertions.*;
 /**
@@ -44,4 +47,286 @@ class GeometriesTests {
     }
 
 
-}
\ No newline at end of file
+    /**
+     * Test method for {@link geometries.Geometries#buildBvh()}.
+     */
+    @Test
+    void testBuildBvh() {
+        Geometries flat = new Geometries();
+        Geometries hierarchy = new Geometries();
+        for (int i = 0; i < 10; ++i)
+            for (int j = 0; j < 10; ++j) {
+                flat.add(new Sphere(new Point(3 * i, 3 * j, 0), 1));
+                hierarchy.add(new Sphere(new Point(3 * i, 3 * j, 0), 1));
+            }
+        hierarchy.buildBvh();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hierarchy finds the same intersections as the flat list
+        for (int i = 0; i < 30; ++i) {
+            Ray ray = new Ray(new Point(i - 0.5, i * 0.9, -10), new Vector(0.01 * i + 0.01, 0.02, 1));
+            List<Point> expected = flat.findIntersections(ray);
+            List<Point> result = hierarchy.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                    "Wrong number of points");
+        }
+
+        // TC02: a ray that misses all the geometries
+        assertNull(hierarchy.findIntersections(new Ray(new Point(-5, -5, -10), new Vector(0, 0, 1))),
+                "Wrong number of points");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: rebuilding the hierarchy keeps the intersections
+        Ray ray = new Ray(new Point(3, 3, -10), new Vector(0, 0, 1));
+        hierarchy.buildBvh();
+        assertEquals(2, hierarchy.findIntersections(ray).size(), "Wrong number of points after rebuild");
+
+        // TC12: turning the bvh off keeps the intersections
+        hierarchy.setBvhIsOn(false);
+        assertEquals(2, hierarchy.findIntersections(ray).size(), "Wrong number of points without bvh");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestGeoIntersection(Ray)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Sphere near = new Sphere(new Point(0, 0, 5), 1);
+        Sphere far = new Sphere(new Point(0, 0, 10), 1);
+        Triangle side = new Triangle(new Point(5, 0, 0), new Point(6, 0, 0), new Point(5, 1, 0));
+        Geometries geometries = new Geometries(far, side, near);
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the closest of several intersected geometries
+        assertEquals(new Point(0, 0, 4), geometries.findClosestGeoIntersection(ray).point, "Wrong closest point");
+
+        // TC02: the same point through the hierarchy
+        geometries.buildBvh();
+        assertEquals(near, geometries.findClosestGeoIntersection(ray).geometry, "Wrong closest geometry");
+
+        // TC03: the ray misses all the geometries
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(0, 0, 0), new Vector(0, 1, 0))),
+                "Found an intersection for a missing ray");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: intersections farther than the maximal distance are ignored
+        assertEquals(new Point(0, 0, 6), geometries.findClosestGeoIntersection(
+                new Ray(new Point(0, 0, 5), new Vector(0, 0, 1)), 8).point, "Wrong closest point inside a sphere");
+        assertNull(geometries.findClosestGeoIntersection(ray, 4), "Found an intersection beyond the distance");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findTransmittance(Ray, double, Double3, double)}.
+     */
+    @Test
+    void testFindTransmittance() {
+        Geometry glass = new Sphere(new Point(0, 0, 5), 1).setMaterial(new Material().setKt(0.5));
+        Geometry wall = new Plane(new Point(0, 0, 10), new Vector(0, 0, 1));
+        Geometries geometries = new Geometries(glass, wall);
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the segment passes twice through a transparent sphere
+        assertEquals(new Double3(0.25), geometries.findTransmittance(ray, 8, Double3.ONE, 0.001),
+                "Wrong transmittance through a transparent sphere");
+
+        // TC02: an opaque geometry on the segment blocks it
+        assertEquals(Double3.ZERO, geometries.findTransmittance(ray, 20, Double3.ONE, 0.001),
+                "An opaque geometry does not block the segment");
+
+        // TC03: nothing on the segment
+        assertEquals(Double3.ONE, geometries.findTransmittance(ray, 3, Double3.ONE, 0.001),
+                "Wrong transmittance of an empty segment");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the segment ends inside the sphere
+        assertEquals(new Double3(0.5), geometries.findTransmittance(ray, 5, Double3.ONE, 0.001),
+                "Wrong transmittance of a segment ending inside a sphere");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findGeoIntersections(Ray)} with unbounded geometries.
+     */
+    @Test
+    void testUnboundedGeometries() {
+        Geometries geometries = new Geometries(new Sphere(new Point(0, 0, 0), 1),
+                new Plane(new Point(0, 0, -100), new Vector(0, 0, 1)));
+        geometries.buildBvh();
+        // a ray far from the sphere box
+        Ray ray = new Ray(new Point(50, 50, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the plane is found outside the box of the bounded geometries
+        assertEquals(1, geometries.findGeoIntersections(ray).size(), "The plane was culled");
+        assertEquals(new Point(50, 50, -100), geometries.findClosestGeoIntersection(ray).point,
+                "The plane was culled");
+
+        // TC02: the plane is found inside a nested Geometries object
+        Geometries parent = new Geometries(new Sphere(new Point(0, 0, 5), 1), geometries);
+        parent.buildBvh();
+        assertEquals(1, parent.findIntersections(ray).size(), "The plane of a nested object was culled");
+
+        // TC03: the plane blocks a shadow segment outside the box of the bounded geometries
+        assertEquals(Double3.ZERO, parent.findTransmittance(ray, 200, Double3.ONE, 0.001),
+                "The plane does not block the segment");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#buildLinearBvh()}.
+     */
+    @Test
+    void testBuildLinearBvh() {
+        Geometries flat = new Geometries();
+        Geometries hierarchy = new Geometries();
+        Random random = new Random(5783);
+        for (int i = 0; i < 5000; ++i) {
+            Point center = new Point(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            double radius = 0.1 + random.nextDouble();
+            flat.add(new Sphere(center, radius));
+            hierarchy.add(new Sphere(center, radius));
+        }
+        hierarchy.buildLinearBvh();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hierarchy finds the same intersections as the flat list
+        for (int i = 0; i < 50; ++i) {
+            Ray ray = new Ray(new Point(2 * i, 50, -10), new Vector(0.01 * i - 0.2, 0.03, 1));
+            List<Point> expected = flat.findIntersections(ray);
+            List<Point> result = hierarchy.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                    "Wrong number of points");
+            assertEquals(ray.findClosestPoint(expected),
+                    result == null ? null : hierarchy.findClosestGeoIntersection(ray).point,
+                    "Wrong closest point");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: geometries with the same centroid
+        Geometries same = new Geometries(new Sphere(new Point(1, 1, 1), 1), new Sphere(new Point(1, 1, 1), 2),
+                new Sphere(new Point(1, 1, 1), 3));
+        same.buildLinearBvh();
+        assertEquals(6, same.findIntersections(new Ray(new Point(1, 1, -10), new Vector(0, 0, 1))).size(),
+                "Wrong number of points");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#compileBvh()}.
+     */
+    @Test
+    void testCompileBvh() {
+        Geometries flat = new Geometries();
+        Geometries compiled = new Geometries();
+        Random random = new Random(3826);
+        for (int i = 0; i < 1000; ++i) {
+            Point center = new Point(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            Point a = new Point(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            Geometry geometry = i % 2 == 0 ? new Sphere(center, 0.1 + random.nextDouble())
+                    : new Triangle(a, a.add(new Vector(2, 0, 1)), a.add(new Vector(0, 3, 1)));
+            geometry.setMaterial(new Material().setKt(0.9));
+            flat.add(geometry);
+            compiled.add(geometry);
+        }
+        compiled.compileBvh();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the compiled hierarchy gives the same results as the flat list
+        for (int i = 0; i < 50; ++i) {
+            Ray ray = new Ray(new Point(2 * i, 50, -10), new Vector(0.01 * i - 0.2, 0.03, 1));
+            List<Point> expected = flat.findIntersections(ray);
+            List<GeoPoint> result = compiled.findGeoIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                    "Wrong number of points");
+            GeoPoint closest = compiled.findClosestGeoIntersection(ray);
+            assertEquals(ray.findClosestPoint(expected), closest == null ? null : closest.point,
+                    "Wrong closest point");
+            assertEquals(flat.findTransmittance(ray, 60, Double3.ONE, 0.001),
+                    compiled.findTransmittance(ray, 60, Double3.ONE, 0.001), "Wrong transmittance");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: adding after compiling, turning the bvh off and rebuilding keep the results
+        Sphere added = new Sphere(new Point(50, 50, 50), 1);
+        flat.add(added);
+        compiled.add(added);
+        Ray ray = new Ray(new Point(50, 50, -10), new Vector(0, 0, 1));
+        int expected = flat.findGeoIntersections(ray).size();
+        compiled.setBvhIsOn(false);
+        assertEquals(expected, compiled.findGeoIntersections(ray).size(), "Wrong number of points without bvh");
+        compiled.setBvhIsOn(true);
+        compiled.buildBvh();
+        assertEquals(expected, compiled.findGeoIntersections(ray).size(), "Wrong number of points after rebuild");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#buildGrid()}.
+     */
+    @Test
+    void testBuildGrid() {
+        Geometries flat = new Geometries();
+        Geometries grid = new Geometries();
+        Geometries fixed = new Geometries();
+        Random random = new Random(5263);
+        for (int i = 0; i < 1000; ++i) {
+            Point center = new Point(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            Point a = new Point(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            Geometry geometry = i % 2 == 0 ? new Sphere(center, 0.1 + random.nextDouble())
+                    : new Triangle(a, a.add(new Vector(2, 0, 1)), a.add(new Vector(0, 3, 1)));
+            geometry.setMaterial(new Material().setKt(0.9));
+            flat.add(geometry);
+            grid.add(geometry);
+            fixed.add(geometry);
+        }
+        grid.buildGrid();
+        fixed.buildGrid(7, 1, 20);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: rays from outside the grid give the same results as the flat list
+        // TC02: rays starting inside the grid give the same results as the flat list
+        for (int i = 0; i < 100; ++i) {
+            Ray ray = i % 2 == 0
+                    ? new Ray(new Point(i, 50, -10), new Vector(0.01 * i - 0.5, 0.03, 1))
+                    : new Ray(new Point(50, 50, 50), new Vector(Math.cos(i), Math.sin(i), 0.01 * i - 0.5));
+            List<Point> expected = flat.findIntersections(ray);
+            Point expectedClosest = ray.findClosestPoint(expected);
+            for (Geometries geometries : List.of(grid, fixed)) {
+                List<GeoPoint> result = geometries.findGeoIntersections(ray);
+                assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                        "Wrong number of points");
+                GeoPoint closest = geometries.findClosestGeoIntersection(ray);
+                assertEquals(expectedClosest, closest == null ? null : closest.point, "Wrong closest point");
+                assertEquals(flat.findTransmittance(ray, 60, Double3.ONE, 0.001),
+                        geometries.findTransmittance(ray, 60, Double3.ONE, 0.001), "Wrong transmittance");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a ray along a cell boundary, parallel to two axes
+        Ray ray = new Ray(new Point(50, 50, -10), new Vector(0, 0, 1));
+        List<Point> expected = flat.findIntersections(ray);
+        assertEquals(ray.findClosestPoint(expected), pointOf(fixed.findClosestGeoIntersection(ray)),
+                "Wrong closest point along a cell boundary");
+
+        // TC12: turning the bvh off and building a hierarchy instead keep the results
+        grid.setBvhIsOn(false);
+        assertEquals(ray.findClosestPoint(expected), pointOf(grid.findClosestGeoIntersection(ray)),
+                "Wrong closest point without bvh");
+        grid.setBvhIsOn(true);
+        grid.buildBvh();
+        assertEquals(ray.findClosestPoint(expected), pointOf(grid.findClosestGeoIntersection(ray)),
+                "Wrong closest point after building a hierarchy");
+
+        // TC13: a grid must have at least one cell along each axis
+        assertThrows(IllegalArgumentException.class, () -> fixed.buildGrid(0, 1, 1),
+                "Grid without cells was built");
+    }
+
+    /**
+     * @param geoPoint intersection, may be null
+     * @return the point of the intersection, or null
+     */
+    private static Point pointOf(GeoPoint geoPoint) {
+        return geoPoint == null ? null : geoPoint.point;
+    }
+
+}
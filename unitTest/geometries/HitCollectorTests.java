@@ -0,0 +1,121 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package geometries;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import geometries.Intersectable.GeoPoint;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The HitCollectorTests class is responsible for testing the HitCollector class.
+ * It includes unit tests for streaming the hits of a ray into collectors.
+ */
+class HitCollectorTests {
+    /**
+     * counts the hits it receives, and stops the search after a given number of hits
+     */
+    private static class Counter extends HitCollector {
+        /**
+         * number of hits received
+         */
+        int count = 0;
+
+        /**
+         * number of hits to stop the search after
+         */
+        private final int limit;
+
+        /**
+         * @param limit number of hits to stop the search after
+         */
+        Counter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        protected boolean collect(Geometry geometry, double distance) {
+            return ++count < limit;
+        }
+    }
+
+    /**
+     * a row of spheres along the x axis, at x = 5, 10, ..., 50
+     *
+     * @return the spheres
+     */
+    private static Geometries row() {
+        Geometries geometries = new Geometries();
+        for (int i = 1; i <= 10; ++i)
+            geometries.add(new Sphere(new Point(5 * i, 0, 0), 1).setMaterial(new Material().setKt(0.5)));
+        return geometries;
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findHits(Ray, HitCollector)}.
+     */
+    @Test
+    void testFindHits() {
+        Ray ray = new Ray(Point.ZERO, new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a collector receives all the hits, flat and in a hierarchy
+        Counter all = new Counter(Integer.MAX_VALUE);
+        assertTrue(row().findHits(ray, all), "The search must not stop");
+        assertEquals(20, all.count, "Wrong number of hits");
+        Counter allInHierarchy = new Counter(Integer.MAX_VALUE);
+        assertTrue(row().buildBvh().findHits(ray, allInHierarchy), "The search must not stop");
+        assertEquals(20, allInHierarchy.count, "Wrong number of hits in the hierarchy");
+
+        // TC02: a collector stops the search
+        Counter three = new Counter(3);
+        assertFalse(row().buildBvh().findHits(ray, three), "The search must stop");
+        assertEquals(3, three.count, "Hits after the search stopped");
+
+        // TC03: the closest hit, found by a reused collector
+        HitCollector.Closest closest = new HitCollector.Closest();
+        Geometries hierarchy = row().buildBvh();
+        hierarchy.findHits(ray, closest.reset(ray, Double.POSITIVE_INFINITY));
+        GeoPoint result = closest.getResult();
+        assertEquals(new Point(4, 0, 0), result.point, "Wrong closest point");
+        assertEquals(4, result.getDistance(ray), 1e-10, "Wrong closest distance");
+        hierarchy.findHits(ray, closest.reset(ray, 3));
+        assertNull(closest.getResult(), "Found a hit beyond the distance");
+
+        // TC04: the transmittance of the spheres up to a distance
+        HitCollector.Transmittance transmittance = new HitCollector.Transmittance();
+        hierarchy.findHits(ray, transmittance.reset(12, Double3.ONE, 0.001));
+        assertEquals(new Double3(0.0625), transmittance.getResult(), "Wrong transmittance");
+
+        // TC05: the closest hit of a geometry made of parts creates the geometry of a single part
+        double[] positions = new double[90];
+        int[] indices = new int[30];
+        for (int i = 0; i < 10; ++i) {
+            // a triangle across the x axis at x = 50, 45, ..., 5, so the farther faces come first
+            double x = 5 * (10 - i);
+            System.arraycopy(new double[]{x, -1, -1, x, 2, -1, x, -1, 2}, 0, positions, 9 * i, 9);
+            for (int j = 0; j < 3; ++j)
+                indices[3 * i + j] = 3 * i + j;
+        }
+        int[] created = {0};
+        TriangleMesh mesh = new TriangleMesh(positions, indices) {
+            @Override
+            public Geometry getPart(int face) {
+                ++created[0];
+                return super.getPart(face);
+            }
+        };
+        mesh.setBvhIsOn(false).findHits(ray, closest.reset(ray, Double.POSITIVE_INFINITY));
+        assertEquals(5, closest.getResult().getDistance(ray), 1e-10, "Wrong closest face");
+        assertEquals(1, created[0], "Created the geometries of the faces that were not kept");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a segment without an end (a directional light) that misses a tube is not blocked by it
+        Tube tube = new Tube(new Ray(new Point(0, 5, 0), new Vector(0, 0, 1)), 1);
+        tube.setMaterial(new Material().setKt(0));
+        tube.findHits(ray, transmittance.reset(Double.POSITIVE_INFINITY, Double3.ONE, 0.001));
+        assertEquals(Double3.ONE, transmittance.getResult(), "A missed tube blocked the segment");
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package geometries;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import geometries.Intersectable.GeoPoint;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The InstanceTests class is responsible for testing the Instance class.
+ * It includes unit tests for intersections and normals of transformed copies of a model.
+ */
+class InstanceTests {
+    /**
+     * the triangle of the model
+     */
+    private final Geometry triangle = new Triangle(new Point(-1, -1, 3), new Point(1, -1, 3), new Point(0, 1, 3))
+            .setMaterial(new Material().setKd(0.3));
+
+    /**
+     * the model - a unit sphere at the origin and a triangle above it
+     */
+    private final Geometries model = new Geometries(
+            new Sphere(Point.ZERO, 1).setMaterial(new Material().setKt(0.5)), triangle).buildBvh();
+
+    /**
+     * Test method for {@link geometries.Instance#findGeoIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Instance instance = new Instance(model, Transform.scaling(2).then(Transform.translation(new Vector(10, 0, 0))));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a ray through the moved and scaled sphere and triangle
+        List<GeoPoint> result = instance.findGeoIntersections(new Ray(new Point(10, 0, -5), new Vector(0, 0, 1)));
+        assertNotNull(result, "Ray must cross the instance");
+        assertEquals(3, result.size(), "Wrong number of points");
+        assertTrue(result.stream().anyMatch(gp -> gp.point.equals(new Point(10, 0, -2))), "Wrong sphere point");
+        assertTrue(result.stream().anyMatch(gp -> gp.point.equals(new Point(10, 0, 6))), "Wrong triangle point");
+
+        // TC02: a ray missing the instance though it crosses the model where it was defined
+        assertNull(instance.findGeoIntersections(new Ray(new Point(0, 0, -5), new Vector(0, 0, 1))),
+                "Ray must miss the instance");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Instance instance = new Instance(model, Transform.rotation(new Vector(0, 1, 0), 90)
+                .then(Transform.translation(new Vector(0, 5, 0))));
+        Ray ray = new Ray(new Point(5, 5, 0), new Vector(-1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the closest point is on the rotated triangle, and the normal is moved with it
+        GeoPoint closest = instance.findClosestGeoIntersection(ray);
+        assertEquals(new Point(3, 5, 0), closest.point, "Wrong closest point");
+        Vector normal = closest.geometry.getNormal(closest.point);
+        assertEquals(1, Math.abs(normal.dotProduct(new Vector(1, 0, 0))), 1e-10, "Wrong normal");
+        assertSame(triangle.getMaterial(), closest.geometry.getMaterial(), "Wrong material");
+
+        // TC02: the closest face of an instance of a mesh, with the normal moved and the material of the mesh
+        TriangleMesh mesh = new TriangleMesh(new double[]{-1, -1, 3, 1, -1, 3, 0, 1, 3}, new int[]{0, 1, 2})
+                .setMaterial(new Material().setKd(0.4));
+        GeoPoint face = new Instance(mesh, Transform.rotation(new Vector(0, 1, 0), 90)
+                .then(Transform.translation(new Vector(0, 5, 0)))).findClosestGeoIntersection(ray);
+        assertEquals(new Point(3, 5, 0), face.point, "Wrong closest point on the mesh");
+        assertEquals(1, Math.abs(face.geometry.getNormal(face.point).dotProduct(new Vector(1, 0, 0))), 1e-10,
+                "Wrong normal of the face");
+        assertSame(mesh.getMaterial(), face.geometry.getMaterial(), "Wrong material of the face");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the maximal distance is measured in the scene, not in the model
+        Instance scaled = new Instance(model, Transform.scaling(4));
+        Ray down = new Ray(new Point(0, 0, 20), new Vector(0, 0, -1));
+        assertNull(scaled.findClosestGeoIntersection(down, 7.9), "Hit beyond the maximal distance");
+        assertEquals(new Point(0, 0, 12), scaled.findClosestGeoIntersection(down, 8.1).point,
+                "Missed hit within the maximal distance");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#buildBvh()} over instances.
+     */
+    @Test
+    void testHierarchyOfInstances() {
+        Geometries scene = new Geometries();
+        for (int i = 0; i < 100; ++i)
+            scene.add(new Instance(model, Transform.translation(new Vector(5 * i + 5, 0, 0))));
+        scene.buildBvh();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a shadow ray through one instance meets the sphere (kt 0.5) and the opaque triangle
+        Ray ray = new Ray(new Point(250, 0, -5), new Vector(0, 0, 1));
+        assertEquals(Double3.ZERO, scene.findTransmittance(ray, 100, Double3.ONE, 0.001), "Wrong transmittance");
+        assertEquals(new Double3(0.25), scene.findTransmittance(ray, 7, Double3.ONE, 0.001),
+                "Wrong transmittance before the triangle");
+        assertEquals(new Point(250, 0, -1), scene.findClosestGeoIntersection(ray).point, "Wrong closest point");
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package geometries;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import geometries.Intersectable.GeoPoint;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The SphereSetTests class is responsible for testing the SphereSet class.
+ * It includes unit tests for intersections of sphere sets compared with separate spheres.
+ */
+class SphereSetTests {
+
+    /**
+     * Test method for {@link geometries.SphereSet#findGeoIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        // 200 spheres spread in a cube, with two materials
+        int n = 200;
+        Random random = new Random(5263);
+        double[] centers = new double[3 * n];
+        double[] radii = new double[n];
+        int[] materialIndices = new int[n];
+        Material[] materials = {new Material().setKt(0.5), new Material().setKt(0.25)};
+        Color[] emissions = {new Color(10, 0, 0), new Color(0, 10, 0)};
+        Geometries spheres = new Geometries();
+        for (int i = 0; i < n; ++i) {
+            centers[3 * i] = random.nextDouble() * 20;
+            centers[3 * i + 1] = random.nextDouble() * 20;
+            centers[3 * i + 2] = random.nextDouble() * 20;
+            radii[i] = 0.2 + random.nextDouble();
+            materialIndices[i] = i % 2;
+            spheres.add(new Sphere(new Point(centers[3 * i], centers[3 * i + 1], centers[3 * i + 2]), radii[i])
+                    .setEmission(emissions[i % 2]).setMaterial(materials[i % 2]));
+        }
+        SphereSet set = new SphereSet(centers, radii).setMaterials(materialIndices, emissions, materials);
+        assertEquals(n, set.getSpheresCount(), "Wrong number of spheres");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the set gives the same points as separate spheres, with the normals and materials of the spheres
+        for (int r = 0; r < 200; ++r) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 20, random.nextDouble() * 20, -5),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, 1));
+            for (boolean bvh : new boolean[]{true, false}) {
+                set.setBvhIsOn(bvh);
+                List<Point> expected = spheres.findIntersections(ray);
+                List<GeoPoint> result = set.findGeoIntersections(ray);
+                assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                        "Wrong number of points");
+                GeoPoint closest = set.findClosestGeoIntersection(ray);
+                GeoPoint expectedClosest = spheres.findClosestGeoIntersection(ray);
+                assertEquals(expectedClosest == null ? null : expectedClosest.point,
+                        closest == null ? null : closest.point, "Wrong closest point");
+                if (closest != null) {
+                    assertEquals(expectedClosest.geometry.getNormal(expectedClosest.point),
+                            closest.geometry.getNormal(closest.point), "Wrong normal");
+                    assertSame(expectedClosest.geometry.getMaterial(), closest.geometry.getMaterial(),
+                            "Wrong material");
+                    assertSame(expectedClosest.geometry.getEmission(), closest.geometry.getEmission(),
+                            "Wrong emission");
+                }
+                assertEquals(spheres.findTransmittance(ray, 15, Double3.ONE, 0.001),
+                        set.findTransmittance(ray, 15, Double3.ONE, 0.001), "Wrong transmittance");
+            }
+        }
+
+        // TC02: a ray starting inside a sphere hits it once
+        set.setBvhIsOn(true);
+        SphereSet single = new SphereSet(new double[]{0, 0, 0}, new double[]{1});
+        List<GeoPoint> inside = single.findGeoIntersections(new Ray(new Point(0, 0, 0.5), new Vector(1, 0, 0)));
+        assertEquals(1, inside.size(), "Ray from inside must hit once");
+        assertSame(single.getMaterial(), inside.get(0).geometry.getMaterial(), "Wrong default material");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a ray tangent to a sphere
+        assertNull(single.findGeoIntersections(new Ray(new Point(-2, 1, 0), new Vector(1, 0, 0))),
+                "Tangent ray must not hit");
+        // TC12: a ray starting on a sphere going out
+        assertNull(single.findGeoIntersections(new Ray(new Point(1, 0, 0), new Vector(1, 0, 0))),
+                "Ray leaving the sphere must not hit");
+    }
+
+    /**
+     * Test method for {@link geometries.SphereSet#SphereSet(double[], double[])}.
+     */
+    @Test
+    void testConstructor() {
+        // =============== Boundary Values Tests ==================
+        // TC11: a set without spheres
+        assertThrows(IllegalArgumentException.class, () -> new SphereSet(new double[0], new double[0]),
+                "A set must have spheres");
+        // TC12: centers not matching the radii
+        assertThrows(IllegalArgumentException.class, () -> new SphereSet(new double[]{0, 0}, new double[]{1}),
+                "Every sphere must have a center");
+        // TC13: a zero radius
+        assertThrows(IllegalArgumentException.class, () -> new SphereSet(new double[]{0, 0, 0}, new double[]{0}),
+                "A radius must be positive");
+        // TC14: a material index out of the palette
+        assertThrows(IllegalArgumentException.class, () -> new SphereSet(new double[]{0, 0, 0}, new double[]{1})
+                        .setMaterials(new int[]{1}, new Color[]{Color.BLACK}, new Material[]{new Material()}),
+                "A material index must be in the palette");
+    }
+}
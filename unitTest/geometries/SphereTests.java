@@ -4,6 +4,7 @@
  */
 package geometries;
 import org.junit.jupiter.api.Test;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -130,4 +131,29 @@ class SphereTests {
         assertEquals(null, result, "Wrong number of points");
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Intersectable.GeoPoint#getDistance(primitives.Ray)}.
+     */
+    @Test
+    void testGeoPoint() {
+        Sphere sphere = new Sphere(new Point(1, 0, 0), 1);
+        sphere.setMaterial(new Material().setKd(0.5));
+        Ray ray = new Ray(new Point(-1, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hits carry their distances, the normal and the material of the sphere
+        List<Intersectable.GeoPoint> result = sphere.findGeoIntersections(ray);
+        assertEquals(2, result.size(), "Wrong number of points");
+        assertEquals(1, result.get(0).getDistance(ray), 0.00001, "Wrong distance of the first hit");
+        assertEquals(3, result.get(1).getDistance(ray), 0.00001, "Wrong distance of the second hit");
+        assertEquals(new Vector(-1, 0, 0), result.get(0).getNormal(), "Wrong normal of the first hit");
+        assertSame(result.get(0).getNormal(), result.get(0).getNormal(), "The normal must be found once");
+        assertSame(sphere.getMaterial(), result.get(0).getMaterial(), "Wrong material");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a hit made without a distance finds it from the ray
+        Intersectable.GeoPoint geoPoint = new Intersectable.GeoPoint(sphere, new Point(2, 0, 0));
+        assertEquals(3, geoPoint.getDistance(ray), 0.00001, "Wrong distance found from the ray");
+    }
+}
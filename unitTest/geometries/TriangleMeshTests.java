@@ -0,0 +1,117 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package geometries;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import geometries.Intersectable.GeoPoint;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The TriangleMeshTests class is responsible for testing the TriangleMesh class.
+ * It includes unit tests for intersections of meshes compared with separate triangles.
+ */
+class TriangleMeshTests {
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findGeoIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        // a height field of 20 x 20 squares, two triangles each
+        int n = 21;
+        Random random = new Random(3826);
+        double[] positions = new double[3 * n * n];
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < n; ++j) {
+                positions[3 * (i * n + j)] = i;
+                positions[3 * (i * n + j) + 1] = j;
+                positions[3 * (i * n + j) + 2] = random.nextDouble() * 3;
+            }
+        int[] indices = new int[6 * (n - 1) * (n - 1)];
+        Geometries triangles = new Geometries();
+        int k = 0;
+        for (int i = 0; i < n - 1; ++i)
+            for (int j = 0; j < n - 1; ++j) {
+                int a = i * n + j, b = a + 1, c = a + n, d = c + 1;
+                for (int[] face : new int[][]{{a, c, b}, {b, c, d}}) {
+                    indices[k++] = face[0];
+                    indices[k++] = face[1];
+                    indices[k++] = face[2];
+                    triangles.add(new Triangle(vertex(positions, face[0]), vertex(positions, face[1]),
+                            vertex(positions, face[2])));
+                }
+            }
+        TriangleMesh mesh = new TriangleMesh(positions, indices);
+        mesh.setMaterial(new Material().setKt(0.5));
+        assertEquals(2 * (n - 1) * (n - 1), mesh.getFacesCount(), "Wrong number of faces");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the mesh gives the same points as separate triangles, and the normals of the faces
+        for (int r = 0; r < 100; ++r) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 20, random.nextDouble() * 20, 10),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            List<Point> expected = triangles.findIntersections(ray);
+            List<GeoPoint> result = mesh.findGeoIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                    "Wrong number of points");
+            GeoPoint closest = mesh.findClosestGeoIntersection(ray);
+            GeoPoint expectedClosest = triangles.findClosestGeoIntersection(ray);
+            assertEquals(expectedClosest == null ? null : expectedClosest.point, closest == null ? null : closest.point,
+                    "Wrong closest point");
+            if (closest != null) {
+                assertEquals(expectedClosest.geometry.getNormal(expectedClosest.point),
+                        closest.geometry.getNormal(closest.point), "Wrong normal");
+                assertSame(mesh.getMaterial(), closest.geometry.getMaterial(), "Wrong material");
+            }
+        }
+
+        // TC02: a shadow ray through the mesh is dimmed by the material once per face it crosses
+        Ray up = new Ray(new Point(5.3, 7.6, -1), new Vector(0, 0, 1));
+        assertEquals(new Double3(0.5), mesh.findTransmittance(up, 100, Double3.ONE, 0.001), "Wrong transmittance");
+        assertEquals(Double3.ONE, mesh.findTransmittance(up, 0.5, Double3.ONE, 0.001),
+                "Transmittance before the mesh must not change");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a ray through a vertex of the mesh
+        assertNull(mesh.findGeoIntersections(new Ray(new Point(5, 7, -1), new Vector(0, 0, 1))),
+                "Ray through a vertex must not hit");
+        // TC12: the same results without the hierarchy
+        mesh.setBvhIsOn(false);
+        assertEquals(new Double3(0.5), mesh.findTransmittance(up, 100, Double3.ONE, 0.001),
+                "Wrong transmittance without bvh");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        double[] positions = {0, 0, 0, 1, 0, 0, 0, 1, 0};
+
+        // =============== Boundary Values Tests ==================
+        // TC11: positions not in triples
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(new double[]{0, 0}, new int[]{0, 0, 0}),
+                "Positions must come in triples");
+        // TC12: a mesh without faces
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(positions, new int[0]),
+                "A mesh must have faces");
+        // TC13: a face with a missing vertex
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(positions, new int[]{0, 1, 3}),
+                "A face must refer to existing vertices");
+    }
+
+    /**
+     * @param positions the positions of the vertices
+     * @param index     index of a vertex
+     * @return the vertex as a point
+     */
+    private static Point vertex(double[] positions, int index) {
+        return new Point(positions[3 * index], positions[3 * index + 1], positions[3 * index + 2]);
+    }
+}
@@ -7,6 +7,9 @@ import org.junit.jupiter.api.Test;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
+
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 /**
  * The TubeTests class is responsible for testing the Tube class.
@@ -30,11 +33,40 @@ class TubeTests {
         assertEquals(new Vector(1,0,0), tube.getNormal(new Point(1,0,2)), "ERROR - TC02: Wrong normal to tube at head");
     }
 
+    /**
+     * Test method for {@link geometries.Tube#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Tube tube = new Tube(new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), 1);
 
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the tube far from the axis head (2 points)
+        List<Point> result = tube.findIntersections(new Ray(new Point(-2, 0, 50), new Vector(1, 0, 0)));
+        assertEquals(List.of(new Point(-1, 0, 50), new Point(1, 0, 50)), result, "Wrong points");
 
+        // TC02: Ray starts inside the tube (1 point)
+        result = tube.findIntersections(new Ray(new Point(0, 0, -7), new Vector(0, 1, 0)));
+        assertEquals(List.of(new Point(0, 1, -7)), result, "Wrong point from inside");
 
+        // TC03: Ray starts after the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(2, 0, 0), new Vector(1, 0, 0))),
+                "Points behind the ray head");
 
+        // TC04: Ray misses the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(-2, 2, 0), new Vector(1, 0, 0))), "Ray misses the tube");
 
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray parallel to the axis (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(0.5, 0, 0), new Vector(0, 0, 1))),
+                "Ray parallel to the axis");
 
+        // TC12: Ray tangent to the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(-2, 1, 0), new Vector(1, 0, 0))), "Tangent ray");
 
-}
\ No newline at end of file
+        // TC13: the closest point is the nearer one
+        assertEquals(new Point(-1, 0, 50),
+                tube.findClosestGeoIntersection(new Ray(new Point(-2, 0, 50), new Vector(1, 0, 0))).point,
+                "Wrong closest point");
+    }
+}
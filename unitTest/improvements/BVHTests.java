@@ -102,6 +102,7 @@ public class BVHTests {
                 new SpotLight(new Color(240, 193, 225), new Point(-100, -100, 200), new Vector(1, 1, -3)) //
                         .setKl(1E-5).setKq(1.5E-7));
         ImageWriter imageWriter = new ImageWriter("tryAllBVH", 600, 600);
+        _scene.getGeometries().buildBvh();
         camera.setImageWriter(imageWriter) //
                 .setRayTracer(new RayTracerBasic(_scene)) //
                 .renderImage() //
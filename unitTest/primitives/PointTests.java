@@ -5,6 +5,7 @@
 package primitives;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
@@ -82,4 +83,21 @@ class PointTests {
         assertEquals(0d, new Point(1, 2, 3).distance(new Point(1, 2, 3)), 0.0001, //
                 "Wrong distance between the point and itself");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link primitives.Point#equals(java.lang.Object)}.
+     */
+    @Test
+    void testEquals() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: points with the same coordinates are equal, different ones are not
+        assertEquals(new Point(1, 2, 3), new Point(1, 2, 3), "Same points are not equal");
+        assertNotEquals(new Point(1, 2, 3), new Point(1, 2, 3.001), "Different points are equal");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: coordinates differing by less than the accuracy are equal
+        assertEquals(new Point(1, 2, 3), new Point(1, 2, 3 + 1e-13), "Points within the accuracy are not equal");
+        // TC12: a vector is not equal to a point with the same coordinates
+        assertNotEquals(new Vector(1, 2, 3), new Point(1, 2, 3), "A vector is equal to a point");
+    }
+}
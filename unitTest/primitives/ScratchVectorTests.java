@@ -0,0 +1,60 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package primitives;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The ScratchVectorTests class is responsible for testing the ScratchVector class.
+ * It includes unit tests for the in place operations compared with the immutable vector operations.
+ */
+class ScratchVectorTests {
+
+    /**
+     * Test method for {@link primitives.ScratchVector#addScaled(primitives.Vector, double)}.
+     */
+    @Test
+    void testAddScaled() {
+        Vector v = new Vector(1, 2, 3);
+        Vector n = new Vector(0, 3, -2);
+        ScratchVector scratch = new ScratchVector();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the same as adding the scaled vector, in the same object
+        assertSame(scratch, scratch.set(v).addScaled(n, -2), "addScaled() must change the vector in place");
+        assertEquals(v.add(n.scale(-2)), scratch.toVector(), "addScaled() wrong result");
+        // TC02: the difference of two points
+        assertEquals(new Point(1, 2, 3).subtract(new Point(4, -1, 2)),
+                scratch.setDifference(new Point(1, 2, 3), new Point(4, -1, 2)).toVector(),
+                "setDifference() wrong result");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a scratch vector may become zero, but not an immutable vector
+        scratch.set(v).addScaled(v, -1);
+        assertEquals(0, scratch.lengthSquared(), "addScaled() wrong zero result");
+        assertEquals(Point.ZERO, scratch.toPoint(), "toPoint() wrong zero point");
+        assertThrows(IllegalArgumentException.class, scratch::toVector, "toVector() must not make a zero vector");
+    }
+
+    /**
+     * Test method for {@link primitives.ScratchVector#normalize()}.
+     */
+    @Test
+    void testNormalize() {
+        Vector v = new Vector(0, 3, 4);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the same as the normalized vector
+        ScratchVector scratch = new ScratchVector().set(v).normalize();
+        assertEquals(1, scratch.length(), 0.00001, "normalize() result is not a unit vector");
+        assertEquals(v.normalize(), scratch.toVector(), "normalize() wrong result");
+        assertEquals(v.length(), scratch.dotProduct(v), 0.00001, "dotProduct() wrong result");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the zero vector cannot be normalized
+        assertThrows(IllegalArgumentException.class, () -> new ScratchVector().normalize(),
+                "normalize() of zero vector must throw");
+    }
+}
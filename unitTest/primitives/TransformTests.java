@@ -0,0 +1,57 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package primitives;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The TransformTests class is responsible for testing the Transform class.
+ * It includes unit tests for moving points, vectors and normals and for combining transformations.
+ */
+class TransformTests {
+
+    /**
+     * Test method for {@link primitives.Transform#transformPoint(primitives.Point)}.
+     */
+    @Test
+    void testTransformPoint() {
+        Transform transform = Transform.rotation(new Vector(0, 0, 1), 90)
+                .then(Transform.scaling(2))
+                .then(Transform.translation(new Vector(1, 2, 3)));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: rotation, scaling and translation applied in order
+        assertEquals(new Point(1, 4, 3), transform.transformPoint(new Point(1, 0, 0)), "Wrong transformed point");
+        // TC02: the inverse transformation brings the point back
+        assertEquals(new Point(1, 0, 0), transform.inverseTransformPoint(new Point(1, 4, 3)),
+                "Wrong inverse transformed point");
+        // TC03: vectors are not moved by the translation
+        assertEquals(new Vector(0, 2, 0), transform.transformVector(new Vector(1, 0, 0)),
+                "Wrong transformed vector");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the identity leaves points in place
+        assertEquals(new Point(1, 2, 3), Transform.IDENTITY.transformPoint(new Point(1, 2, 3)),
+                "Identity moved the point");
+        // TC12: a transformation without inverse
+        assertThrows(IllegalArgumentException.class, () -> Transform.scaling(1, 0, 1),
+                "Singular transformation was created");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#transformNormal(primitives.Vector)}.
+     */
+    @Test
+    void testTransformNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the normal of the plane x + y = 0 stays orthogonal to it after stretching along x
+        Transform transform = Transform.scaling(2, 1, 1);
+        Vector inPlane = transform.transformVector(new Vector(1, -1, 0));
+        Vector normal = transform.transformNormal(new Vector(1, 1, 0));
+        assertEquals(0, normal.dotProduct(inPlane), 1e-10, "Transformed normal is not orthogonal");
+        assertEquals(1, normal.length(), 1e-10, "Transformed normal is not normalized");
+    }
+}
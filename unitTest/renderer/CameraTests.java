@@ -4,7 +4,13 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Sphere;
+import lighting.AmbientLight;
 import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Testing Camera Class
@@ -56,4 +62,61 @@ class CameraTests {
 
     }
 
+    /**
+     * Test method for
+     * {@link renderer.Camera#renderImageProgressive(int, double, java.util.function.IntConsumer)}.
+     */
+    @Test
+    void testRenderImageProgressive() {
+        Scene scene = new Scene.SceneBuilder("Progressive scene")
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), new Double3(1, 1, 1)))
+                .setBackground(new Color(75, 127, 90)).build();
+        scene.getGeometries().add(new Sphere(new Point(0, 0, -100), 50d));
+        ImageWriter imageWriter = new ImageWriter("progressive test", 32, 32);
+        Camera camera = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(200, 200)
+                .setImageWriter(imageWriter).setRayTracer(new RayTracerBasic(scene));
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: the samples per pixel double every pass up to the target, with an image after every pass
+        List<Integer> passes = new ArrayList<>();
+        camera.renderImageProgressive(12, 0, passes::add);
+        assertEquals(List.of(1, 2, 4, 8, 12), passes, "Wrong passes");
+        assertEquals(0xFFBFBF, imageWriter.readRGB(16, 16), "Wrong pixel on the sphere");
+        assertEquals(0x4B7F5A, imageWriter.readRGB(0, 0), "Wrong pixel of the background");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: a time limit that is over before a pass is finished stops the render
+        passes.clear();
+        camera.setImageWriter(new ImageWriter("progressive test", 256, 256))
+                .renderImageProgressive(1 << 20, 1e-6, passes::add);
+        assertTrue(passes.stream().allMatch(samples -> samples == 0), "Finished a pass after the time limit");
+
+        // BV02: no samples
+        assertThrows(IllegalArgumentException.class, () -> camera.renderImageProgressive(0, 0, passes::add),
+                "Rendered no samples");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#printGrid(int, Color)}.
+     */
+    @Test
+    void testPrintGrid() {
+        Camera camera = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: the grid lines are drawn every interval, on the rows and on the columns
+        ImageWriter imageWriter = new ImageWriter("grid test", 10, 10);
+        camera.setImageWriter(imageWriter).printGrid(4, new Color(255, 255, 0));
+        assertEquals(0xFFFF00, imageWriter.readRGB(4, 1), "Wrong pixel on a column line");
+        assertEquals(0xFFFF00, imageWriter.readRGB(1, 8), "Wrong pixel on a row line");
+        assertEquals(0, imageWriter.readRGB(5, 5), "Wrong pixel between the lines");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: an image streamed in strips
+        camera.setImageWriter(new ImageWriter("grid test", 10, 10, 4));
+        assertThrows(IllegalStateException.class, () -> camera.printGrid(4, new Color(255, 255, 0)),
+                "Printed a grid on a streamed image");
+    }
+
 }
@@ -1,7 +1,15 @@
 package renderer;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import primitives.*;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * Testing ImageWriter Class
  *
@@ -40,6 +48,68 @@ class ImageWriterTests {
 
     }
 
+    /**
+     * Test method for {@link renderer.ImageWriter#writePixel(int, int, Color)}.
+     */
+    @Test
+    void testWritePixel() {
+        ImageWriter imageWriter = new ImageWriter("pixels test", 4, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a color is packed into the pixel of its row and column
+        imageWriter.writePixel(2, 1, pink);
+        assertEquals(0xFF99CC, imageWriter.getPixels()[1 * 4 + 2], "Wrong packed pixel");
 
+        // TC02: the components bigger than 255 are clamped
+        imageWriter.writePixel(3, 2, new Color(300, 1000, 12.7));
+        assertEquals(0xFFFF0C, imageWriter.getPixels()[2 * 4 + 3], "Wrong clamped pixel");
 
-}
\ No newline at end of file
+        // TC03: the components are gamma corrected
+        imageWriter.setGamma(2).writePixel(0, 0, new Color(63.75, 255, 0));
+        assertEquals(0x7FFF00, imageWriter.getPixels()[0], "Wrong gamma corrected pixel");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a gamma that is not positive
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.setGamma(0), "Zero gamma");
+
+        // TC12: the components that are not positive are clamped to 0
+        imageWriter.setGamma(1).writePixel(1, 0, new Color(Double.NaN, 10, -0.0));
+        assertEquals(0x000A00, imageWriter.getPixels()[1], "Wrong clamped negative pixel");
+
+        // TC13: a column outside the image
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.writePixel(-1, 1, pink), "Negative column");
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.writePixel(4, 0, pink), "Column too big");
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#ImageWriter(String, int, int, int)}.
+     */
+    @Test
+    void testStreaming(@TempDir File folder) throws IOException {
+        ImageWriter imageWriter = new ImageWriter("strips", 20, 10, 4).setFolder(folder.getPath());
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an image written strip by strip is streamed to the file
+        for (int strip = 0; strip < 10; strip += 4) {
+            // only the rows of the current strip can be written
+            int first = strip;
+            if (first != 0)
+                assertThrows(IllegalArgumentException.class, () -> imageWriter.writePixel(0, first - 1, pink),
+                        "Wrote a row of a finished strip");
+            for (int row = strip; row < Math.min(strip + 4, 10); ++row)
+                for (int col = 0; col < 20; ++col)
+                    imageWriter.writePixel(col, row, row % 2 == 0 ? pink : white);
+            imageWriter.stripDone();
+        }
+        imageWriter.writeToImage();
+        BufferedImage image = ImageIO.read(new File(folder, "strips.png"));
+        for (int row = 0; row < 10; ++row)
+            assertEquals(row % 2 == 0 ? 0xFF99CC : 0xFFFFFF, image.getRGB(7, row) & 0xFFFFFF, "Wrong row " + row);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: an image written before all its strips are done
+        ImageWriter partial = new ImageWriter("partial", 20, 10, 4).setFolder(folder.getPath());
+        partial.stripDone();
+        assertThrows(IllegalStateException.class, partial::writeToImage, "Wrote a partial image");
+    }
+}
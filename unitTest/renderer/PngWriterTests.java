@@ -0,0 +1,101 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package renderer;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The PngWriterTests class is responsible for testing the PngWriter class.
+ * It includes unit tests for encoding images row by row.
+ */
+class PngWriterTests {
+
+    /**
+     * an image of smooth gradients, so every filter type is chosen for some rows, with rows of noise
+     *
+     * @param width  the number of pixel columns
+     * @param height the number of pixel rows
+     * @return the pixels row by row, as packed 0xRRGGBB ints
+     */
+    private static int[] image(int width, int height) {
+        Random random = new Random(7);
+        int[] image = new int[width * height];
+        for (int row = 0; row < height; ++row)
+            for (int col = 0; col < width; ++col)
+                image[row * width + col] = row % 5 == 0 ? random.nextInt(1 << 24)
+                        : (col * 7 & 0xFF) << 16 | (row * 8 & 0xFF) << 8 | (col + row) * 3 & 0xFF;
+        return image;
+    }
+
+    /**
+     * encodes an image in strips of rows and checks the decoded image has the same pixels
+     *
+     * @param png         the writer
+     * @param image       the pixels of the image
+     * @param width       the number of pixel columns
+     * @param height      the number of pixel rows
+     * @param stripHeight the number of rows written at a time
+     * @param out         the stream the writer writes to
+     */
+    private static void checkEncoding(PngWriter png, int[] image, int width, int height, int stripHeight,
+                                      ByteArrayOutputStream out) throws IOException {
+        try (png) {
+            int[] strip = new int[width * stripHeight];
+            for (int row = 0; row < height; row += stripHeight) {
+                int rows = Math.min(stripHeight, height - row);
+                System.arraycopy(image, row * width, strip, 0, rows * width);
+                png.writeRows(strip, rows);
+            }
+        }
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(width, decoded.getWidth(), "Wrong width");
+        assertEquals(height, decoded.getHeight(), "Wrong height");
+        for (int row = 0; row < height; ++row)
+            for (int col = 0; col < width; ++col)
+                assertEquals(image[row * width + col], decoded.getRGB(col, row) & 0xFFFFFF,
+                        "Wrong pixel " + col + "," + row);
+    }
+
+    /**
+     * Test method for {@link renderer.PngWriter#writeRows(int[], int)}.
+     */
+    @Test
+    void testWriteRows() throws IOException {
+        int width = 37, height = 29;
+        int[] image = image(width, height);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an image written in strips of rows is decoded to the same pixels
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        checkEncoding(new PngWriter(out, width, height), image, width, height, 8, out);
+
+        // TC02: a large image deflated in many blocks by several threads, by the fastest level
+        int largeWidth = 300, largeHeight = 700;
+        RenderExecutor executor = new RenderExecutor(3);
+        out = new ByteArrayOutputStream();
+        checkEncoding(new PngWriter(out, largeWidth, largeHeight, Deflater.BEST_SPEED, executor.getExecutor()),
+                image(largeWidth, largeHeight), largeWidth, largeHeight, 256, out);
+        executor.shutdown();
+
+        // =============== Boundary Values Tests ==================
+        // TC11: more rows than the image has
+        PngWriter tooMany = new PngWriter(new ByteArrayOutputStream(), width, 2);
+        assertThrows(IllegalStateException.class, () -> tooMany.writeRows(image, 3), "Wrote too many rows");
+
+        // TC12: closed before all the rows were written
+        PngWriter tooFew = new PngWriter(new ByteArrayOutputStream(), width, 2);
+        tooFew.writeRows(image, 1);
+        assertThrows(IllegalStateException.class, tooFew::close, "Closed a partial image");
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package renderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Color;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The RenderCheckpointTests class is responsible for testing the RenderCheckpoint class.
+ * It includes unit tests for resuming a render that died from the tiles it finished.
+ */
+class RenderCheckpointTests {
+    /**
+     * the rendering threads shared by the tests
+     */
+    private static final RenderExecutor executor = new RenderExecutor(2);
+
+    /**
+     * the color a pixel is rendered in
+     *
+     * @param col column index of the pixel
+     * @param row row index of the pixel
+     * @return the color
+     */
+    private static Color color(int col, int row) {
+        return new Color(col * 5, row * 5, 100);
+    }
+
+    /**
+     * Test method for {@link renderer.RenderCheckpoint#RenderCheckpoint(Path, String, ImageWriter, int)}.
+     */
+    @Test
+    void testResume(@TempDir Path folder) throws IOException {
+        int nX = 50, nY = 37;
+        Path file = folder.resolve("render.rcp");
+
+        // a render on a single thread that dies in its third tile, after two tiles of 16x16 pixels
+        RenderExecutor single = new RenderExecutor(1);
+        ImageWriter died = new ImageWriter("died", nX, nY);
+        RenderJob dying = new RenderJob(nX, nY, 0);
+        AtomicInteger dyingPixels = new AtomicInteger();
+        try (RenderCheckpoint checkpoint = new RenderCheckpoint(file, "scene", died, dying.getTilesCount())) {
+            assertFalse(checkpoint.isResumed(), "Resumed a new file");
+            assertThrows(IllegalStateException.class, () -> dying.setCheckpoint(checkpoint).run(single, (col, row) -> {
+                if (dyingPixels.incrementAndGet() > 700)
+                    throw new IllegalStateException("died");
+                died.writePixel(col, row, color(col, row));
+            }), "The render did not die");
+        }
+        single.shutdown();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the same render resumes - only the missing tiles are rendered, and the image is whole
+        ImageWriter resumed = new ImageWriter("resumed", nX, nY);
+        RenderJob resuming = new RenderJob(nX, nY, 0);
+        AtomicInteger rendered = new AtomicInteger();
+        try (RenderCheckpoint checkpoint = new RenderCheckpoint(file, "scene", resumed, resuming.getTilesCount())) {
+            assertTrue(checkpoint.isResumed(), "Did not resume the render");
+            assertTrue(resuming.setCheckpoint(checkpoint).run(executor, (col, row) -> {
+                rendered.incrementAndGet();
+                resumed.writePixel(col, row, color(col, row));
+            }), "The render was not finished");
+        }
+        assertEquals(nX * nY - 2 * 16 * 16, rendered.get(), "Rendered the finished tiles again");
+        assertEquals(nX * nY, resuming.getPixelsDone(), "Wrong progress");
+        for (int row = 0; row < nY; ++row)
+            for (int col = 0; col < nX; ++col)
+                assertEquals(color(col, row).getRGB(1), resumed.readRGB(col, row), "Wrong pixel " + col + "," + row);
+
+        // TC02: another render starts over
+        RenderCheckpoint other = new RenderCheckpoint(file, "another scene", resumed, resuming.getTilesCount());
+        assertFalse(other.isResumed(), "Resumed another render");
+        assertFalse(other.isDone(0), "A tile of another render is done");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the file of a finished render is deleted
+        other.delete();
+        assertFalse(Files.exists(file), "The file of a finished render was kept");
+    }
+}
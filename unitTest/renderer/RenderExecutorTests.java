@@ -0,0 +1,69 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package renderer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The RenderExecutorTests class is responsible for testing the RenderExecutor class.
+ * It includes unit tests for creating the executors and for rendering on virtual threads.
+ */
+class RenderExecutorTests {
+
+    /**
+     * Test method for {@link renderer.RenderExecutor#RenderExecutor(int)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a given number of threads
+        RenderExecutor executor = new RenderExecutor(3);
+        assertEquals(3, executor.getParallelism(), "Wrong parallelism");
+        executor.shutdown();
+
+        // TC02: a thread per available processor
+        executor = new RenderExecutor();
+        assertEquals(Runtime.getRuntime().availableProcessors(), executor.getParallelism(), "Wrong parallelism");
+        executor.shutdown();
+
+        // =============== Boundary Values Tests ==================
+        // TC11: no threads
+        assertThrows(IllegalArgumentException.class, () -> new RenderExecutor(0), "Created without threads");
+    }
+
+    /**
+     * Test method for {@link renderer.RenderExecutor#getDefault()}.
+     */
+    @Test
+    void testGetDefault() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the default executor is shared
+        assertSame(RenderExecutor.getDefault(), RenderExecutor.getDefault(), "The default executor is not shared");
+    }
+
+    /**
+     * Test method for {@link renderer.RenderExecutor#virtualThreads()}.
+     */
+    @Test
+    void testVirtualThreads() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every pixel is rendered exactly once on virtual threads, where the runtime has them
+        RenderExecutor executor;
+        try {
+            executor = RenderExecutor.virtualThreads();
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        int nX = 50, nY = 37;
+        AtomicIntegerArray counts = new AtomicIntegerArray(nX * nY);
+        new RenderJob(nX, nY, 0).run(executor, (col, row) -> counts.incrementAndGet(row * nX + col));
+        for (int i = 0; i < counts.length(); ++i)
+            assertEquals(1, counts.get(i), "Pixel " + i % nX + "," + i / nX + " rendered a wrong number of times");
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package renderer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The RenderJobTests class is responsible for testing the RenderJob class.
+ * It includes unit tests for rendering all the pixels in several threads, and for several jobs at once.
+ */
+class RenderJobTests {
+
+    /**
+     * the rendering threads shared by the tests
+     */
+    private static final RenderExecutor executor = new RenderExecutor(4);
+
+    /**
+     * Test method for {@link renderer.RenderJob#run(RenderExecutor, TileScheduler.PixelTask)}.
+     */
+    @Test
+    void testRun() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every pixel of an image with partial tiles is rendered exactly once by several threads
+        int nX = 50, nY = 37;
+        AtomicIntegerArray counts = new AtomicIntegerArray(nX * nY);
+        RenderJob job = new RenderJob(nX, nY, 0);
+        job.run(executor, (col, row) -> counts.incrementAndGet(row * nX + col));
+        for (int i = 0; i < counts.length(); ++i)
+            assertEquals(1, counts.get(i), "Pixel " + i % nX + "," + i / nX + " rendered a wrong number of times");
+        assertEquals(nX * nY, job.getPixelsDone(), "Wrong progress");
+
+        // TC02: the failure of a rendering thread is reported to the caller
+        assertThrows(IllegalStateException.class, () -> new RenderJob(nX, nY, 0).run(executor, (col, row) -> {
+            if (col == 20 && row == 30)
+                throw new IllegalStateException("failed pixel");
+        }), "The failure was not reported");
+
+        // TC03: the executor is kept for the next jobs
+        RenderJob next = new RenderJob(nX, nY, 0);
+        next.run(executor, (col, row) -> {
+        });
+        assertEquals(nX * nY, next.getPixelsDone(), "Wrong progress after a failed job");
+
+        // TC04: an image rendered in strips - every strip is done before the next one starts
+        AtomicIntegerArray stripCounts = new AtomicIntegerArray(nX * nY);
+        int[] strips = {0};
+        new RenderJob(nX, nY, 16, 0).run(executor, (col, row) -> {
+            assertEquals(strips[0], row / 16, "Rendered a row out of its strip");
+            stripCounts.incrementAndGet(row * nX + col);
+        }, () -> ++strips[0]);
+        assertEquals(3, strips[0], "Wrong number of strips");
+        for (int i = 0; i < stripCounts.length(); ++i)
+            assertEquals(1, stripCounts.get(i), "Pixel " + i % nX + "," + i / nX + " rendered a wrong number of times");
+    }
+
+    /**
+     * Test method for {@link renderer.RenderJob#run(RenderExecutor, TileScheduler.PixelTask)}
+     * with several jobs at once.
+     */
+    @Test
+    void testConcurrentJobs() throws Exception {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: jobs of different sizes running at the same time on the same threads keep their own progress
+        int[][] sizes = {{64, 64}, {30, 90}, {101, 7}};
+        ExecutorService callers = Executors.newFixedThreadPool(sizes.length);
+        try {
+            Future<?>[] results = new Future<?>[sizes.length];
+            for (int k = 0; k < sizes.length; ++k) {
+                int nX = sizes[k][0], nY = sizes[k][1];
+                results[k] = callers.submit(() -> {
+                    AtomicIntegerArray counts = new AtomicIntegerArray(nX * nY);
+                    RenderJob job = new RenderJob(nX, nY, 0);
+                    job.run(executor, (col, row) -> counts.incrementAndGet(row * nX + col));
+                    assertEquals(nX * nY, job.getPixelsDone(), "Wrong progress of a job");
+                    for (int i = 0; i < counts.length(); ++i)
+                        assertEquals(1, counts.get(i), "A pixel rendered a wrong number of times");
+                    return null;
+                });
+            }
+            for (Future<?> result : results)
+                result.get();
+        } finally {
+            callers.shutdown();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Tehila Ben Moshe-213385263, email:bmtehila@gmail.com
+ * Maayan Amar-211763826, email:maayanamar11.01@gmail.com
+ */
+package renderer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The TileSchedulerTests class is responsible for testing the TileScheduler class.
+ * It includes unit tests for the order of the tiles and for covering all the pixels by the tiles.
+ */
+class TileSchedulerTests {
+
+    /**
+     * Test method for {@link renderer.TileScheduler#TileScheduler(int, int, int)}.
+     */
+    @Test
+    void testOrder() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tiles of a 4x4 grid go along the Morton curve
+        TileScheduler scheduler = new TileScheduler(64, 64, 16);
+        assertEquals(16, scheduler.getTilesCount(), "Wrong number of tiles");
+        int[] expected = {0, 1, 4, 5, 2, 3, 6, 7, 8, 9, 12, 13, 10, 11, 14, 15};
+        for (int i = 0; i < expected.length; ++i)
+            assertEquals(expected[i], scheduler.getTile(i), "Wrong tile at position " + i);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the partial tiles on the edges of the image are counted
+        assertEquals(12, new TileScheduler(50, 37, 16).getTilesCount(), "Wrong number of partial tiles");
+
+        // TC12: sizes that are not positive
+        assertThrows(IllegalArgumentException.class, () -> new TileScheduler(0, 10, 16), "Empty image");
+        assertThrows(IllegalArgumentException.class, () -> new TileScheduler(10, 10, 0), "Empty tile");
+    }
+
+    /**
+     * Test method for {@link renderer.TileScheduler#renderTile(int, TileScheduler.PixelTask)}.
+     */
+    @Test
+    void testRenderTile() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tiles of an image with partial tiles cover every pixel exactly once
+        int nX = 50, nY = 37;
+        int[] counts = new int[nX * nY];
+        TileScheduler scheduler = new TileScheduler(nX, nY, 16);
+        int pixels = 0;
+        for (int position = 0; position < scheduler.getTilesCount(); ++position)
+            pixels += scheduler.renderTile(position, (col, row) -> ++counts[row * nX + col]);
+        assertEquals(nX * nY, pixels, "Wrong number of pixels in the tiles");
+        for (int i = 0; i < counts.length; ++i)
+            assertEquals(1, counts[i], "Pixel " + i % nX + "," + i / nX + " rendered a wrong number of times");
+    }
+}